@@ -0,0 +1,68 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: An abstract class for maze searches that grow one search tree from
+ * the start and another from the target, and stop once the two meet. The tree grown
+ * from the start is kept in the usual SearchState and the tree grown from the target
+ * in a second one. When the trees meet, the half of the path in the second tree is
+ * copied into the first, so the path is traced back and drawn as for any other search.
+ */
+
+abstract class AbstractBidirectionalSearch extends AbstractMazeSearch {
+
+    /**
+     * The search tree grown from the target
+     */
+    private SearchState backward;
+
+    /**
+     * Constructor for the AbstractBidirectionalSearch class.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the tree grown from the start in
+     */
+    public AbstractBidirectionalSearch(Maze maze, SearchState state){
+        super(maze, state);
+        backward = new SearchState(maze.getRows() * maze.getCols());
+    }
+
+    /**
+     * Returns the SearchState holding the tree grown from the target.
+     *
+     * @return the SearchState holding the tree grown from the target
+     */
+    public SearchState getBackwardState(){
+        return backward;
+    }
+
+    /**
+     * Returns the number of cells reached from either the start or the target.
+     *
+     * @return the number of cells reached
+     */
+    @Override
+    public int countReachedCells(){
+        return getSearchState().countVisited() + backward.countVisited();
+    }
+
+    /**
+     * Copies the path from the given meeting Cell to the target out of the tree
+     * grown from the target and into the tree grown from the start, then returns
+     * the whole path.
+     *
+     * @param meet the index of a Cell reached by both trees on a shortest path
+     * @return the path from the starting cell to the target cell
+     */
+    protected LinkedList<Cell> stitch(int meet){
+        SearchState state = getSearchState();
+        int targetIdx = getMaze().indexOf(getTarget());
+        int g = state.getCost(meet);
+        int idx = meet;
+        while (idx != targetIdx){
+            int next = backward.getParent(idx);
+            state.setParent(next, idx, ++g);
+            idx = next;
+        }
+        return traceback(getTarget());
+    }
+}
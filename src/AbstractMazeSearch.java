@@ -32,12 +32,61 @@ abstract class AbstractMazeSearch {
     private Cell cur;
 
     /**
-     * Constructor for the AbstractMazeSearch class.
+     * The search tree built by this searcher
+     */
+    private SearchState state;
+
+    /**
+     * Used to give up straight away when the target cannot be reached, or null
+     */
+    private ReachabilityIndex reachability;
+
+    /**
+     * The number of Cells expanded between looks at the clock
+     */
+    private static final int CLOCK_INTERVAL = 256;
+
+    /**
+     * The limits of the running search, or null if it has none
+     */
+    private SearchLimits limits;
+
+    /**
+     * When the running search started, as a value of System.nanoTime()
+     */
+    private long startedAt;
+
+    /**
+     * The number of Cells the running search has expanded, and the number at
+     * which it next looks at the clock
+     */
+    private long expansions, nextClockCheck;
+
+    /**
+     * The limit the running search hit, or null if it has not hit one
+     */
+    private SearchStatus stopReason;
+
+    /**
+     * Constructor for the AbstractMazeSearch class. The search tree is stored in
+     * the maze's own SearchState.
      * 
      * @param maze
      */
     public AbstractMazeSearch(Maze maze){
+        this(maze, maze.getSearchState());
+    }
+
+    /**
+     * Constructor for the AbstractMazeSearch class that stores the search tree in
+     * the given SearchState, leaving the maze untouched.
+     * 
+     * @param maze  the maze to search
+     * @param state the SearchState to record the search tree in
+     */
+    public AbstractMazeSearch(Maze maze, SearchState state){
         this.maze = maze;
+        this.state = state;
         this.start = null;
         this.target = null;
         this.cur = null;
@@ -80,6 +129,54 @@ abstract class AbstractMazeSearch {
         return maze;
     }
 
+    /**
+     * Returns the SearchState holding the search tree.
+     * 
+     * @return the SearchState holding the search tree
+     */
+    public SearchState getSearchState() {
+        return state;
+    }
+
+    /**
+     * Returns the number of cells this search has reached.
+     * 
+     * @return the number of cells this search has reached
+     */
+    public int countReachedCells() {
+        return state.countVisited();
+    }
+
+    /**
+     * Sets the index consulted before searching, so that the search returns null
+     * straight away when the target cannot be reached from the start.
+     * 
+     * @param reachability the index to consult, or null to always search
+     */
+    public void setReachabilityIndex(ReachabilityIndex reachability) {
+        this.reachability = reachability;
+    }
+
+    /**
+     * Returns the index consulted before searching.
+     * 
+     * @return the index consulted before searching, or null if there is none
+     */
+    public ReachabilityIndex getReachabilityIndex() {
+        return reachability;
+    }
+
+    /**
+     * Returns the Cell which revealed the given Cell in this search.
+     * 
+     * @param cell the Cell
+     * @return the previous Cell, or null if the Cell has not been reached
+     */
+    public Cell getPrev(Cell cell) {
+        int parent = state.getParent(maze.indexOf(cell));
+        return parent < 0 ? null : maze.get(parent);
+    }
+
     /**
      * Returns the starting Cell of the maze.
      * 
@@ -133,29 +230,115 @@ abstract class AbstractMazeSearch {
      */
     public LinkedList<Cell> traceback(Cell cell){
         LinkedList<Cell> path = new LinkedList<Cell>();
-        while (cell!=start){
-            path.add(cell); // add the cell to the path
-            cell = cell.getPrev();
+        int startIdx = maze.indexOf(start);
+        int idx = maze.indexOf(cell);
+        while (idx!=startIdx){
+            path.add(maze.get(idx)); // add the cell to the path
+            idx = state.getParent(idx);
         }
         return path;
     }
 
     /**
-     * Searches the maze for the target cell using the given starting cell.
+     * Sets the starting and target cells of a new search, and checks the
+     * reachability index if there is one. Subclasses that replace {@code search}
+     * call this first.
      * 
      * @param start  the starting cell
      * @param target the target cell
-     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     * @return false if the target is known to be unreachable, true otherwise
      */
-    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
-        // Set the starting and target cells
+    protected boolean begin(Cell start, Cell target){
         this.start = start;
         this.target = target;
-        
         setCur(start);
+        expansions = 0;
+        nextClockCheck = 0;
+        stopReason = null;
+        return reachability == null || reachability.isReachable(start, target);
+    }
+
+    /**
+     * Counts the given number of Cells as expanded if the running search may
+     * still expand them, and tells it to stop otherwise. Searches call this
+     * before each expansion, or before each level when they expand a whole level
+     * at once, so they stop at the limits given to {@code search}. The clock is
+     * only read every few hundred Cells, so a search may overrun its time limit
+     * or deadline by that many expansions.
+     * 
+     * @param cells the number of Cells about to be expanded
+     * @return true if the search may go on, false if it has to stop
+     */
+    protected boolean withinLimits(int cells){
+        if (limits != null && stopReason == null){
+            if (cells > limits.getMaxExpansions() - expansions){
+                stopReason = SearchStatus.BUDGET_EXCEEDED;
+            } else if (limits.isCancelled()){
+                stopReason = SearchStatus.CANCELLED;
+            } else if (expansions >= nextClockCheck){
+                nextClockCheck = expansions + CLOCK_INTERVAL;
+                if (limits.isOutOfTime(startedAt, System.nanoTime())){
+                    stopReason = SearchStatus.DEADLINE_EXCEEDED;
+                }
+            }
+        }
+        if (stopReason != null){
+            return false;
+        }
+        expansions += cells;
+        return true;
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell, giving
+     * up as soon as any of the given limits is hit. The result says whether a path
+     * was found, whether there is none, or which limit stopped the search, along
+     * with how many Cells it expanded and reached and how long it took. A search
+     * stopped by a limit keeps the best path it had found by then, if any.
+     * 
+     * @param start  the starting cell
+     * @param target the target cell
+     * @param limits the limits the search must stay within
+     * @return the result of the search
+     */
+    public SearchResult search(Cell start, Cell target, SearchLimits limits){
+        this.limits = limits;
+        startedAt = System.nanoTime();
+        expansions = 0;
+        nextClockCheck = 0;
+        stopReason = null;
+        LinkedList<Cell> path;
+        try {
+            path = search(start, target, false, 0);
+        } finally {
+            this.limits = null;
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        SearchStatus status = stopReason != null ? stopReason
+                : path != null ? SearchStatus.FOUND : SearchStatus.EXHAUSTED;
+        return new SearchResult(status, path, expansions, countReachedCells(), elapsed);
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     * 
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        // Drop the cells the last search left unexplored, since they belong to its tree
+        while(numRemainingCells()>0){
+            findNextCell();
+        }
 
         // This line is just to make the drawing work correctly
-        start.setPrev(start);
+        state.setParent(maze.indexOf(start), maze.indexOf(start));
 
         addCell(start);
 
@@ -169,25 +352,38 @@ abstract class AbstractMazeSearch {
 
         // While there are still cells to explore
         while(numRemainingCells()>0){
+            // Stop if the search has hit one of its limits
+            if (!withinLimits(1)){
+                return null;
+            }
+
             // Set the current cell to the next cell to explore
             setCur(findNextCell());
 
-            for(Cell neighbor: maze.getNeighbors(cur)){
+            int curIdx = maze.indexOf(cur);
+            int neighborMask = maze.getNeighborMask(cur.getRow(), cur.getCol());
+            for(int direction = 0; direction < 4; direction++){
+                if ((neighborMask & (1 << direction)) == 0)
+                    continue;
+                Cell neighbor = maze.getNeighbor(cur, direction);
+                int neighborIdx = maze.indexOf(neighbor);
                 // if the neighbor has not been visited set its previous cell to the current cell
                 // and add it to the data structure
-                if (neighbor.getPrev() == null){
-                    neighbor.setPrev(cur);
+                if (!state.hasParent(neighborIdx)){
+                    state.setParent(neighborIdx, curIdx);
                     addCell(neighbor);
                 }
                 // if the neighbor has been visited and the we find a shorter path to it
-                // set its previous cell to the current cell and update its position in the data structure
-                else if (traceback(neighbor).size()>traceback(cur).size()){
-                    neighbor.setPrev(cur);
+                // set its previous cell to the current cell and update its position in the data structure.
+                // The costs of the neighbor's own descendants are not updated, which only matters for
+                // DFS: BFS and A* never find a shorter path to a cell they have already expanded.
+                else if (state.getCost(neighborIdx)>state.getCost(curIdx)+1){
+                    state.setParent(neighborIdx, curIdx);
                     updateCell(neighbor);
                 }
 
                 // if the neighbor is the target cell, we found the target
-                if(neighbor == target){
+                if(neighborIdx == maze.indexOf(target)){
                     return traceback(target);
                 }
             }
@@ -211,10 +407,11 @@ abstract class AbstractMazeSearch {
      * @param scale the scale at which to draw the maze
      */
     public void draw(Graphics g, int scale) {
-        // Draws the base version of the maze
-        getMaze().draw(g, scale);
+        // Draws the base version of the maze, marking the cells this search has visited
+        for (Cell cell : getMaze())
+            cell.drawType(g, scale, state.hasParent(maze.indexOf(cell)));
         // Draws the paths taken by the searcher
-        getStart().drawAllPrevs(getMaze(), g, scale, Color.RED);
+        drawSearchTree(g, scale, Color.RED);
         // Draws the start cell
         getStart().draw(g, scale, Color.BLUE);
         // Draws the target cell
@@ -224,14 +421,64 @@ abstract class AbstractMazeSearch {
     
         // If the target has been found, draws the path taken by the searcher to reach
         // the target sans backtracking.
-        if (getTarget().getPrev() != null) {
-            Cell traceBackCur = getTarget().getPrev();
+        if (getPrev(getTarget()) != null) {
+            Cell traceBackCur = getPrev(getTarget());
             while (!traceBackCur.equals(getStart())) {
                 traceBackCur.draw(g, scale, Color.GREEN);
-                traceBackCur = traceBackCur.getPrev();
+                traceBackCur = getPrev(traceBackCur);
             }
-            getTarget().drawPrevPath(g, scale, Color.BLUE);
+            drawLines(getTarget(), g, scale, Color.BLUE);
+        }
+    }
+
+    /**
+     * Draws a line from every visited Cell to the Cell that revealed it.
+     * 
+     * @param g     the Graphics object used to draw
+     * @param scale the scale at which to draw
+     * @param c     the Color to draw with
+     */
+    private void drawSearchTree(Graphics g, int scale, Color c) {
+        g.setColor(c);
+        for (int idx = 0; idx < state.size(); idx++) {
+            int parent = state.getParent(idx);
+            if (parent >= 0 && parent != idx)
+                drawLine(idx, parent, g, scale);
         }
     }
 
+    /**
+     * Draws lines from the given Cell back through its previous Cells until
+     * reaching the start.
+     * 
+     * @param cell  the Cell to start drawing from
+     * @param g     the Graphics object used to draw
+     * @param scale the scale at which to draw
+     * @param c     the Color to draw with
+     */
+    private void drawLines(Cell cell, Graphics g, int scale, Color c) {
+        g.setColor(c);
+        int idx = maze.indexOf(cell);
+        int parent = state.getParent(idx);
+        while (parent >= 0 && parent != idx) {
+            drawLine(idx, parent, g, scale);
+            idx = parent;
+            parent = state.getParent(idx);
+        }
+    }
+
+    /**
+     * Draws a line between the centers of the Cells with the given indices.
+     * 
+     * @param from  the index of the first Cell
+     * @param to    the index of the second Cell
+     * @param g     the Graphics object used to draw
+     * @param scale the scale at which to draw
+     */
+    private void drawLine(int from, int to, Graphics g, int scale) {
+        int cols = maze.getCols();
+        g.drawLine((from % cols) * scale + scale / 2, (from / cols) * scale + scale / 2,
+                (to % cols) * scale + scale / 2, (to / cols) * scale + scale / 2);
+    }
+
 }
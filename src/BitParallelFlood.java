@@ -0,0 +1,591 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A flood fill over the free Cells of a maze that works on 64 Cells at
+ * a time. The free Cells, the Cells reached and the current layer of the flood are each
+ * kept as a bitset with one bit per Cell and every row starting on a new word, so one
+ * layer of a breadth-first search is a few shifts, ORs and ANDs per word: the next layer
+ * is the current one shifted a column left and right and moved a row up and down, less
+ * the obstacles and the Cells already reached. Only the words of the current layer that
+ * hold a Cell, and the words next to them, are visited, unless the layer is spread over
+ * so much of the maze that sweeping every row with the GridKernels is cheaper.
+ *
+ * When only the set of reachable Cells is wanted, whole runs of free Cells in a row are
+ * filled at once with a carry-propagating addition, sweeping down and up the rows until
+ * nothing changes. Layer numbers are only recorded when asked for, and a path is only
+ * recovered, one step at a time back through the layers, when it is requested.
+ *
+ * Starting a new flood only clears the words the last one reached, and words are
+ * marked as visited with a stamp that keeps counting up from flood to flood, so a
+ * short flood in a large maze costs no more than the words it touches.
+ */
+
+import java.util.Arrays;
+
+public class BitParallelFlood {
+
+    /**
+     * Layers holding a Cell in at least one in this many words of the maze are
+     * grown by sweeping every row rather than by visiting their words.
+     */
+    private static final int DENSE_RATIO = 16;
+
+    /**
+     * The row loops used to sweep dense layers and count Cells
+     */
+    private static final GridKernels KERNELS = GridKernels.get();
+
+    /**
+     * The maze being flooded
+     */
+    private Maze maze;
+
+    /**
+     * The number of rows and columns of the maze, and of words in each row of a bitset
+     */
+    private int rows, cols, words;
+
+    /**
+     * The free Cells of the maze
+     */
+    private long[] free;
+
+    /**
+     * The modification count of the maze when the free Cells were read
+     */
+    private int builtAt;
+
+    /**
+     * The Cells reached so far
+     */
+    private long[] reached;
+
+    /**
+     * The Cells of the current layer, and a cleared bitset the next layer is built in
+     */
+    private long[] frontier;
+    private long[] next;
+
+    /**
+     * The indices of the words of the current layer that hold a Cell, and a list the
+     * words of the next layer are gathered in
+     */
+    private int[] active;
+    private int activeSize;
+    private int[] nextActive;
+
+    /**
+     * The stamp of the layer each word was last visited in, so no word is visited
+     * twice in a layer, and the stamp of the current layer
+     */
+    private int[] visitedAt;
+    private int visitStamp;
+
+    /**
+     * The indices of the words that hold a reached Cell, so only they need to be
+     * cleared, unless there were so many that every word is cleared instead
+     */
+    private int[] touched;
+    private int touchedSize;
+    private boolean touchedAll;
+
+    /**
+     * The number of the current layer, which is the distance of its Cells from the sources
+     */
+    private int depth;
+
+    /**
+     * The layer each reached Cell was reached in, or null if layers are not recorded
+     */
+    private int[] layers;
+
+    /**
+     * Whether the layers of the Cells reached were recorded by the current flood
+     */
+    private boolean layered;
+
+    /**
+     * A scratch row used while filling runs
+     */
+    private long[] row;
+
+    /**
+     * The index offsets of the neighbors up, down, right and left of a Cell
+     */
+    private int[] offsets;
+
+    /**
+     * Constructor for the BitParallelFlood class.
+     *
+     * @param maze the maze to flood
+     */
+    public BitParallelFlood(Maze maze) {
+        this.maze = maze;
+        this.rows = maze.getRows();
+        this.cols = maze.getCols();
+        this.words = (cols + 63) >>> 6;
+        this.free = maze.getFreeWords();
+        this.builtAt = maze.getModCount();
+        this.reached = new long[rows * words];
+        this.frontier = new long[rows * words];
+        this.next = new long[rows * words];
+        this.active = new int[16];
+        this.nextActive = new int[16];
+        this.visitedAt = new int[rows * words];
+        this.touched = new int[16];
+        this.row = new long[words];
+        this.offsets = new int[] { -cols, cols, 1, -1 };
+    }
+
+    /**
+     * Returns the maze being flooded.
+     *
+     * @return the maze being flooded
+     */
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Empties the flood, reading the free Cells of the maze again if it has changed.
+     */
+    private void clear() {
+        if (builtAt != maze.getModCount()) {
+            free = maze.getFreeWords();
+            builtAt = maze.getModCount();
+        }
+        if (touchedAll) {
+            Arrays.fill(reached, 0);
+        } else {
+            for (int k = 0; k < touchedSize; k++)
+                reached[touched[k]] = 0;
+        }
+        touchedSize = 0;
+        touchedAll = false;
+        for (int k = 0; k < activeSize; k++)
+            frontier[active[k]] = 0;
+        activeSize = 0;
+        depth = 0;
+    }
+
+    /**
+     * Records that a word of {@code reached} now holds a Cell, which must be
+     * called before its first Cell is set.
+     *
+     * @param i the index of the word
+     */
+    private void touch(int i) {
+        if (touchedAll) {
+            return;
+        }
+        if ((long) touchedSize * DENSE_RATIO >= reached.length) {
+            touchedAll = true;
+            return;
+        }
+        touched = push(touched, touchedSize++, i);
+    }
+
+    /**
+     * Starts a new breadth-first flood from the Cell with the given index. The
+     * flood is then run one layer at a time with {@code advance}.
+     *
+     * @param source the index of the Cell to flood from
+     * @param record whether to record the layer of every Cell reached, which is
+     *               needed to recover paths
+     */
+    public void start(int source, boolean record) {
+        clear();
+        layered = record;
+        if (record && layers == null) {
+            layers = new int[rows * cols];
+        }
+        addSource(source);
+    }
+
+    /**
+     * Adds the Cell with the given index to the current layer, so one flood can
+     * start from several Cells. OBSTACLEs and Cells already reached are ignored.
+     *
+     * @param source the index of the Cell
+     */
+    public void addSource(int source) {
+        int r = source / cols;
+        int c = source % cols;
+        int i = r * words + (c >>> 6);
+        long bit = 1L << c;
+        if ((free[i] & bit) == 0 || (reached[i] & bit) != 0) {
+            return;
+        }
+        if (frontier[i] == 0) {
+            active = push(active, activeSize++, i);
+        }
+        if (reached[i] == 0) {
+            touch(i);
+        }
+        reached[i] |= bit;
+        frontier[i] |= bit;
+        if (layered) {
+            layers[source] = depth;
+        }
+    }
+
+    /**
+     * Stores a word index in a list, growing the list if it is full.
+     *
+     * @param list the list
+     * @param size the number of indices in the list
+     * @param i    the index to store
+     * @return the list, which is a new array if it had to grow
+     */
+    private static int[] push(int[] list, int size, int i) {
+        if (size == list.length) {
+            list = Arrays.copyOf(list, 2 * size);
+        }
+        list[size] = i;
+        return list;
+    }
+
+    /**
+     * Moves the flood on to the next layer: every free Cell next to the current
+     * layer that has not been reached yet.
+     *
+     * @return true if the new layer has any Cells, false if the flood is over
+     */
+    public boolean advance() {
+        if (activeSize == 0) {
+            return false;
+        }
+        depth++;
+        // 0 marks a word not visited yet, so the stamps start again from 1 when they run out
+        if (visitStamp == Integer.MAX_VALUE) {
+            Arrays.fill(visitedAt, 0);
+            visitStamp = 0;
+        }
+        visitStamp++;
+        int nextSize = 0;
+        if ((long) activeSize * DENSE_RATIO >= frontier.length) {
+            nextSize = sweep();
+        } else {
+            for (int k = 0; k < activeSize; k++) {
+                int i = active[k];
+                int w = i % words;
+                // only the word itself and the words beside, above and below it can be reached from it
+                nextSize = visit(i, nextSize);
+                if (w > 0)
+                    nextSize = visit(i - 1, nextSize);
+                if (w < words - 1)
+                    nextSize = visit(i + 1, nextSize);
+                if (i >= words)
+                    nextSize = visit(i - words, nextSize);
+                if (i < frontier.length - words)
+                    nextSize = visit(i + words, nextSize);
+            }
+        }
+
+        // Clear the old layer so the bitsets hold nothing but their active words, and swap
+        for (int k = 0; k < activeSize; k++)
+            frontier[active[k]] = 0;
+        long[] swap = frontier;
+        frontier = next;
+        next = swap;
+        int[] swapActive = active;
+        active = nextActive;
+        nextActive = swapActive;
+        activeSize = nextSize;
+        return activeSize > 0;
+    }
+
+    /**
+     * Finds the Cells of the given word that are reached by the next layer, unless
+     * the word was already visited for this layer.
+     *
+     * @param i        the index of the word
+     * @param nextSize the number of words of the next layer found so far
+     * @return the number of words of the next layer found so far, including this one
+     */
+    private int visit(int i, int nextSize) {
+        if (visitedAt[i] == visitStamp) {
+            return nextSize;
+        }
+        visitedAt[i] = visitStamp;
+        int w = i % words;
+        long f = frontier[i];
+        // the Cells a column right of, a column left of, below and above the layer
+        long spread = f << 1 | f >>> 1;
+        if (w > 0)
+            spread |= frontier[i - 1] >>> 63;
+        if (w < words - 1)
+            spread |= frontier[i + 1] << 63;
+        if (i >= words)
+            spread |= frontier[i - words];
+        if (i < frontier.length - words)
+            spread |= frontier[i + words];
+        long found = spread & free[i] & ~reached[i];
+        if (found == 0) {
+            return nextSize;
+        }
+
+        next[i] = found;
+        if (reached[i] == 0) {
+            touch(i);
+        }
+        reached[i] |= found;
+        nextActive = push(nextActive, nextSize, i);
+        record(i, found);
+        return nextSize + 1;
+    }
+
+    /**
+     * Grows the next layer by sweeping every row of the maze with the GridKernels.
+     *
+     * @return the number of words of the next layer
+     */
+    private int sweep() {
+        int nextSize = 0;
+        for (int r = 0; r < rows; r++) {
+            int base = r * words;
+            if (KERNELS.expandRow(frontier, free, reached, next, base, words, r > 0, r < rows - 1) == 0)
+                continue;
+            for (int i = base; i < base + words; i++) {
+                if (next[i] != 0) {
+                    // the kernel added the next layer to reached, which held none of it
+                    if (reached[i] == next[i])
+                        touch(i);
+                    nextActive = push(nextActive, nextSize++, i);
+                    record(i, next[i]);
+                }
+            }
+        }
+        return nextSize;
+    }
+
+    /**
+     * Records the current layer as the layer of the given Cells of a word, if the
+     * flood records layers.
+     *
+     * @param i     the index of the word
+     * @param found the Cells of the word that were just reached
+     */
+    private void record(int i, long found) {
+        if (layered) {
+            int first = i / words * cols + (i % words << 6);
+            for (long bits = found; bits != 0; bits &= bits - 1)
+                layers[first + Long.numberOfTrailingZeros(bits)] = depth;
+        }
+    }
+
+    /**
+     * Runs a breadth-first flood from the source until it reaches the target,
+     * recording layers so the path can be recovered with {@code stepBack}.
+     *
+     * @param source the index of the Cell to flood from
+     * @param target the index of the Cell to reach
+     * @return the distance from the source to the target, or -1 if it cannot be reached
+     */
+    public int flood(int source, int target) {
+        start(source, true);
+        while (!isReached(target)) {
+            if (!advance())
+                return -1;
+        }
+        return layers[target];
+    }
+
+    /**
+     * Returns the Cells at exactly the given distance from the source. Layers are
+     * not recorded, so this is the cheapest way to find a ring around a Cell.
+     *
+     * @param source   the index of the Cell to flood from
+     * @param distance the distance of the ring
+     * @return the bitset of the Cells in the ring, which must not be modified and
+     *         is only valid until the flood is next changed
+     */
+    public long[] ring(int source, int distance) {
+        start(source, false);
+        for (int d = 0; d < distance; d++) {
+            if (!advance())
+                break;
+        }
+        return frontier;
+    }
+
+    /**
+     * Returns the Cells that can be reached from the source. Rather than going
+     * layer by layer, whole runs of free Cells in a row are filled at once, and
+     * the rows are swept down and up until nothing more is reached.
+     *
+     * @param source the index of the Cell to flood from
+     * @return the bitset of the Cells reached, which must not be modified and is
+     *         only valid until the flood is next changed
+     */
+    public long[] reachable(int source) {
+        start(source, false);
+        // the flood has no layers, so leave the current layer empty
+        for (int k = 0; k < activeSize; k++)
+            frontier[active[k]] = 0;
+        activeSize = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int r = 0; r < rows; r++)
+                changed |= fillRow(r, r - 1);
+            for (int r = rows - 1; r >= 0; r--)
+                changed |= fillRow(r, r + 1);
+        }
+        return reached;
+    }
+
+    /**
+     * Reaches every run of free Cells in a row that holds a reached Cell or lies
+     * next to a reached Cell of the given neighboring row.
+     *
+     * @param r    the row to fill
+     * @param from the neighboring row, which may be outside the maze
+     * @return true if any Cell was newly reached, false otherwise
+     */
+    private boolean fillRow(int r, int from) {
+        int base = r * words;
+        int fromBase = from >= 0 && from < rows ? from * words : -1;
+        long any = 0;
+        for (int w = 0; w < words; w++) {
+            row[w] = reached[base + w];
+            if (fromBase >= 0)
+                row[w] |= reached[fromBase + w] & free[base + w];
+            any |= row[w];
+        }
+        if (any == 0) {
+            return false;
+        }
+
+        // Adding the seeds to the free bits carries through each run towards higher
+        // columns, flipping exactly the bits of the run from each seed onwards
+        long carry = 0;
+        for (int w = 0; w < words; w++) {
+            long f = free[base + w];
+            long sum = f + row[w];
+            long out = Long.compareUnsigned(sum, f) < 0 ? 1 : 0;
+            sum += carry;
+            if (carry != 0 && sum == 0)
+                out = 1;
+            row[w] |= (sum ^ f) & f;
+            carry = out;
+        }
+        // and the same with the bits reversed fills each run towards lower columns
+        carry = 0;
+        for (int w = words - 1; w >= 0; w--) {
+            long f = Long.reverse(free[base + w]);
+            long seeds = Long.reverse(row[w]);
+            long sum = f + seeds;
+            long out = Long.compareUnsigned(sum, f) < 0 ? 1 : 0;
+            sum += carry;
+            if (carry != 0 && sum == 0)
+                out = 1;
+            row[w] |= Long.reverse((sum ^ f) & f);
+            carry = out;
+        }
+
+        boolean changed = false;
+        for (int w = 0; w < words; w++) {
+            if (row[w] != reached[base + w]) {
+                if (reached[base + w] == 0)
+                    touch(base + w);
+                reached[base + w] = row[w];
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns whether the Cell with the given index has been reached.
+     *
+     * @param idx the index of the Cell
+     * @return true if the Cell has been reached, false otherwise
+     */
+    public boolean isReached(int idx) {
+        int c = idx % cols;
+        return (reached[idx / cols * words + (c >>> 6)] & (1L << c)) != 0;
+    }
+
+    /**
+     * Returns the number of Cells reached.
+     *
+     * @return the number of Cells reached
+     */
+    public int countReached() {
+        return KERNELS.bitCount(reached, 0, reached.length);
+    }
+
+    /**
+     * Returns the number of Cells in the current layer.
+     *
+     * @return the number of Cells in the current layer
+     */
+    public int countFrontier() {
+        int count = 0;
+        for (int k = 0; k < activeSize; k++)
+            count += Long.bitCount(frontier[active[k]]);
+        return count;
+    }
+
+    /**
+     * Removes a Cell from the current layer.
+     *
+     * @return the index of the Cell removed, or -1 if the layer is empty
+     */
+    public int pollFrontier() {
+        if (activeSize == 0) {
+            return -1;
+        }
+        int i = active[activeSize - 1];
+        long word = frontier[i];
+        frontier[i] = word & (word - 1);
+        if (frontier[i] == 0) {
+            activeSize--;
+        }
+        return i / words * cols + (i % words << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the number of the current layer, which is the distance of its Cells
+     * from the sources.
+     *
+     * @return the number of the current layer
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the distance from the sources to the Cell with the given index, if
+     * the current flood records layers.
+     *
+     * @param idx the index of the Cell
+     * @return the distance to the Cell, or -1 if it has not been reached or
+     *         layers are not recorded
+     */
+    public int getLayer(int idx) {
+        return layered && isReached(idx) ? layers[idx] : -1;
+    }
+
+    /**
+     * Returns a neighbor of the Cell with the given index that is one step closer
+     * to the sources, which is how a path is recovered from a flood that records
+     * layers.
+     *
+     * @param idx the index of a reached Cell that is not a source
+     * @return the index of a neighbor one layer earlier
+     */
+    public int stepBack(int idx) {
+        if (!layered) {
+            throw new IllegalStateException("The flood does not record layers");
+        }
+        int mask = maze.getNeighborMask(idx / cols, idx % cols);
+        for (int direction = 0; direction < 4; direction++) {
+            int neighbor = idx + offsets[direction];
+            if ((mask & (1 << direction)) != 0 && isReached(neighbor) && layers[neighbor] == layers[idx] - 1)
+                return neighbor;
+        }
+        throw new IllegalStateException("No neighbor of " + idx + " is closer to the sources");
+    }
+}
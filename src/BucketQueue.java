@@ -0,0 +1,206 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A bucket queue (as in Dial's algorithm) that implements the
+ * PriorityQueue interface for items with small non-negative integer priorities, where
+ * a lower number means a greater priority. There is one stack of keys per priority.
+ * Changing the priority of an item pushes its key onto its new bucket and leaves the
+ * old entry behind to be skipped later, so offer, updatePriority and remove run in
+ * O(1). poll runs in O(1) amortized as long as priorities mostly increase, which is
+ * the case for A* with a consistent heuristic.
+ */
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+public class BucketQueue<T> implements PriorityQueue<T> {
+    private ToIntFunction<T> priority;
+    private ToIntFunction<T> indexer;
+    private IntFunction<T> lookup;
+
+    // The keys pushed onto each bucket, some of which may be stale
+    private IntDeque[] buckets;
+
+    // One more than the bucket each key is currently in, or 0 if it is not in the queue
+    private int[] bucketOf;
+
+    // No bucket below this one holds an item
+    private int min;
+    private int size;
+
+    /**
+     * Constructor for the BucketQueue class.
+     *
+     * @param priority gives the priority of each item, which must not be negative
+     * @param indexer  maps each item to a distinct non-negative key
+     * @param lookup   maps each key back to its item
+     */
+    public BucketQueue(ToIntFunction<T> priority, ToIntFunction<T> indexer, IntFunction<T> lookup){
+        this.priority = priority;
+        this.indexer = indexer;
+        this.lookup = lookup;
+        buckets = new IntDeque[16];
+        bucketOf = new int[16];
+        min = 0;
+        size = 0;
+    }
+
+    /**
+     * Pushes the given key onto the bucket for the given priority.
+     *
+     * @param key    the key of the item
+     * @param bucket the priority of the item
+     */
+    private void push(int key, int bucket){
+        if(bucket < 0){
+            throw new IllegalArgumentException("Priority must not be negative: " + bucket);
+        }
+        if(bucket >= buckets.length){
+            buckets = Arrays.copyOf(buckets, Math.max(bucket + 1, 2*buckets.length));
+        }
+        if(buckets[bucket] == null){
+            buckets[bucket] = new IntDeque();
+        }
+        buckets[bucket].pushInt(key);
+        bucketOf[key] = bucket + 1;
+        if(bucket < min){
+            min = bucket;
+        }
+    }
+
+    /**
+     * Moves the minimum to the first bucket whose top key is still in it, dropping
+     * stale keys on the way.
+     */
+    private void advance(){
+        while(true){
+            IntDeque bucket = buckets[min];
+            if(bucket == null || bucket.isEmpty()){
+                min++;
+            }
+            else if(bucketOf[bucket.peekInt()] != min + 1){
+                bucket.pollInt();
+            }
+            else{
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of items in the queue.
+     *
+     * @return the number of items in the queue
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns whether the given item is in the queue.
+     *
+     * @param item the item to look for
+     * @return true if the item is in the queue, false otherwise
+     */
+    public boolean contains(T item){
+        int key = indexer.applyAsInt(item);
+        return key < bucketOf.length && bucketOf[key] != 0;
+    }
+
+    /**
+     * Adds the given item to the queue. If the item is already in the queue, its
+     * priority is updated instead.
+     *
+     * @param item the item to add
+     */
+    public void offer(T item){
+        if(contains(item)){
+            updatePriority(item);
+            return;
+        }
+        int key = indexer.applyAsInt(item);
+        if(key >= bucketOf.length){
+            bucketOf = Arrays.copyOf(bucketOf, Math.max(key + 1, 2*bucketOf.length));
+        }
+        push(key, priority.applyAsInt(item));
+        size++;
+    }
+
+    /**
+     * Returns the item of greatest priority in the queue.
+     *
+     * @return the item of greatest priority, or null if the queue is empty
+     */
+    public T peek(){
+        if(size == 0){
+            return null;
+        }
+        advance();
+        return lookup.apply(buckets[min].peekInt());
+    }
+
+    /**
+     * Returns and removes the item of greatest priority in the queue. Items of the
+     * same priority come out in the reverse of the order they were added.
+     *
+     * @return the item of greatest priority, or null if the queue is empty
+     */
+    public T poll(){
+        if(size == 0){
+            return null;
+        }
+        advance();
+        int key = buckets[min].pollInt();
+        bucketOf[key] = 0;
+        size--;
+        return lookup.apply(key);
+    }
+
+    /**
+     * Moves the given item to the bucket for its current priority.
+     *
+     * @param item the item whose priority has been updated
+     */
+    public void updatePriority(T item){
+        if(!contains(item)){
+            return;
+        }
+        int key = indexer.applyAsInt(item);
+        int bucket = priority.applyAsInt(item);
+        if(bucketOf[key] != bucket + 1){
+            push(key, bucket);
+        }
+    }
+
+    /**
+     * Removes every item from the queue, along with the stale keys left behind.
+     */
+    public void clear(){
+        for(IntDeque bucket : buckets){
+            if(bucket == null){
+                continue;
+            }
+            while(!bucket.isEmpty()){
+                bucketOf[bucket.pollInt()] = 0;
+            }
+        }
+        min = 0;
+        size = 0;
+    }
+
+    /**
+     * Removes the given item from the queue if it is present.
+     *
+     * @param item the item to remove
+     * @return true if the item was in the queue, false otherwise
+     */
+    public boolean remove(T item){
+        if(!contains(item)){
+            return false;
+        }
+        bucketOf[indexer.applyAsInt(item)] = 0;
+        size--;
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.Random;
+
+public class BucketQueueTests {
+
+    public static double bucketQueueTests() {
+
+        double testScore = 0. ;
+        Random rand = new Random();
+        int n = 1000;
+
+        /**
+         * Offer items with random priorities and poll them out in order
+         */
+        {
+            int[] priority = new int[n];
+            BucketQueue<Integer> pq = new BucketQueue<>((Integer a) -> priority[a], (Integer a) -> a, (int key) -> key);
+            for (int i = 0; i < n; i++) {
+                priority[i] = rand.nextInt(300);
+                pq.offer(i);
+            }
+
+            if (pq.size() == n && IndexedHeapTests.pollsInOrder(pq, priority, n)) {
+                System.out.println( "Test 1 passed" );
+                testScore ++;
+            }
+        }
+
+        /**
+         * Lower the priorities of some items below the current minimum (decrease-key)
+         * and poll them out in order
+         */
+        {
+            int[] priority = new int[n];
+            BucketQueue<Integer> pq = new BucketQueue<>((Integer a) -> priority[a], (Integer a) -> a, (int key) -> key);
+            for (int i = 0; i < n; i++) {
+                priority[i] = 300 + rand.nextInt(300);
+                pq.offer(i);
+            }
+            int head = pq.peek();
+            for (int i = 0; i < n; i += 3) {
+                priority[i] = rand.nextInt(300);
+                pq.updatePriority(i);
+            }
+
+            if (pq.size() == n && priority[pq.peek()] < priority[head] && IndexedHeapTests.pollsInOrder(pq, priority, n)) {
+                System.out.println( "Test 2 passed" );
+                testScore ++;
+            }
+        }
+
+        /**
+         * Remove some items, several times over, and poll out exactly the rest, in order
+         */
+        {
+            int[] priority = new int[n];
+            BucketQueue<Integer> pq = new BucketQueue<>((Integer a) -> priority[a], (Integer a) -> a, (int key) -> key);
+            for (int i = 0; i < n; i++) {
+                priority[i] = rand.nextInt(300);
+                pq.offer(i);
+            }
+            boolean testPassed = true;
+            int removed = 0;
+            for (int i = 0; i < n; i++) {
+                if (rand.nextBoolean()) {
+                    testPassed &= pq.remove(i) && !pq.contains(i) && !pq.remove(i);
+                    removed++;
+                }
+            }
+
+            if (testPassed && pq.size() == n - removed && IndexedHeapTests.pollsInOrder(pq, priority, n - removed)) {
+                System.out.println( "Test 3 passed" );
+                testScore ++;
+            }
+        }
+
+        /**
+         * Move items back and forth between buckets and re-offer removed items, so
+         * that stale entries are left behind in the buckets, then poll out every
+         * item exactly once
+         */
+        {
+            int[] priority = new int[n];
+            BucketQueue<Integer> pq = new BucketQueue<>((Integer a) -> priority[a], (Integer a) -> a, (int key) -> key);
+            boolean[] in = new boolean[n];
+            int size = 0;
+            boolean testPassed = true;
+            for (int step = 0; step < 20 * n; step++) {
+                int item = rand.nextInt(n);
+                int choice = rand.nextInt(4);
+                if (in[item] && choice == 0) {
+                    pq.remove(item);
+                    in[item] = false;
+                    size--;
+                } else if (choice == 1 && size > 0) {
+                    int head = pq.peek();
+                    int polled = pq.poll();
+                    for (int i = 0; i < n; i++) {
+                        if (in[i] && priority[i] < priority[polled]) {
+                            testPassed = false;
+                        }
+                    }
+                    testPassed &= head == polled && in[polled];
+                    in[polled] = false;
+                    size--;
+                } else {
+                    priority[item] = rand.nextInt(20);
+                    if (in[item]) {
+                        pq.updatePriority(item);
+                    } else {
+                        pq.offer(item);
+                        in[item] = true;
+                        size++;
+                    }
+                }
+                testPassed &= pq.size() == size;
+            }
+
+            if (testPassed && IndexedHeapTests.pollsInOrder(pq, priority, size)) {
+                System.out.println( "Test 4 passed" );
+                testScore ++;
+            }
+        }
+
+        return testScore;
+    }
+
+    public static void main(String[] args) {
+        System.out.println( bucketQueueTests() + "/4.0" );
+    }
+}
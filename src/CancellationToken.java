@@ -0,0 +1,33 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A flag that lets one thread ask searches running on other threads
+ * to stop. A search given the token through its SearchLimits checks it before each
+ * step and stops with the status CANCELLED once it is set. One token can be shared by
+ * several searches, which all stop when it is cancelled.
+ */
+
+public class CancellationToken {
+
+    /**
+     * Whether the token has been cancelled
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Asks every search using this token to stop. It can be called from any thread,
+     * and the token stays cancelled.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether the token has been cancelled.
+     *
+     * @return true if the token has been cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
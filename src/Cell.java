@@ -2,7 +2,8 @@
  * Author: Muneeb Azfar Nafees (based on code provided by professor) 
  * 
  * Purpose of class: A class that represents a cell in a maze. Each cell can be either
- * free or an obstacle. The cell also keeps track of its previous cell in the path.
+ * free or an obstacle. The cell also keeps track of its previous cell in the path,
+ * which is stored in the SearchState of its maze if it belongs to one.
  */
 
 import java.awt.Color;
@@ -21,7 +22,8 @@ public class Cell {
     private Cell prev;
 
     /**
-     * Specifies the CellType of this Cell (either FREE or OBSTACLE)
+     * Specifies the CellType of this Cell (either FREE or OBSTACLE). A Cell of a
+     * packed Maze leaves this null and reads its type from the Maze instead.
      */
     private CellType type;
 
@@ -30,6 +32,12 @@ public class Cell {
      */
     private boolean visited;
 
+    /**
+     * Specifies the Maze this Cell belongs to, or null if it is not part of one.
+     * Changes to the type of an owned Cell are written back to its Maze.
+     */
+    private Maze maze;
+
     /**
      * Constructs a Cell from the given parameters.
      * 
@@ -38,9 +46,22 @@ public class Cell {
      * @param type the CellType of the Cell (either FREE or OBSTACLE)
      */
     public Cell(int r, int c, CellType type) {
+        this(r, c, type, null);
+    }
+
+    /**
+     * Constructs a Cell owned by the given Maze.
+     * 
+     * @param r    the row of the Cell
+     * @param c    the column of the Cell
+     * @param type the CellType of the Cell (either FREE or OBSTACLE)
+     * @param maze the Maze this Cell belongs to
+     */
+    public Cell(int r, int c, CellType type, Maze maze) {
         row = r;
         col = c;
         this.type = type;
+        this.maze = maze;
         prev = null;
         visited = false;
     }
@@ -51,19 +72,36 @@ public class Cell {
      * This means that when {@code prev} was explored, this Cell was found for the
      * first time.
      * 
-     * @param prev the previous Cell of this one.
+     * @param prev the previous Cell of this one, or null to clear it. Clearing
+     *             the previous Cell leaves this Cell marked as visited.
      */
     public void setPrev(Cell prev) {
+        if (maze != null) {
+            SearchState state = maze.getSearchState();
+            int index = maze.indexOf(this);
+            if (prev == null) {
+                state.clear(index);
+                state.setVisited(index, true);
+            } else {
+                state.setParent(index, maze.indexOf(prev));
+            }
+            return;
+        }
         this.visited = true;
         this.prev = prev;
     }
 
     /**
-     * Returns the previous Cell of this one.
+     * Returns the previous Cell of this one. If this Cell belongs to a Maze, this
+     * is read from the Maze's SearchState.
      * 
      * @return the previous Cell of this one.
      */
     public Cell getPrev() {
+        if (maze != null) {
+            int parent = maze.getSearchState().getParent(maze.indexOf(this));
+            return parent < 0 ? null : maze.get(parent);
+        }
         return prev;
     }
 
@@ -71,6 +109,10 @@ public class Cell {
      * Resets this Cell back to its initial state (which just sets prev to null)
      */
     public void reset() {
+        if (maze != null) {
+            maze.getSearchState().clear(maze.indexOf(this));
+            return;
+        }
         this.visited = false;
         this.prev = null;
     }
@@ -81,11 +123,41 @@ public class Cell {
      * @return the CellType of this Cell (either FREE or OBSTACLE).
      */
     public CellType getType() {
+        if (maze != null && maze.isPacked())
+            return maze.isObstacle(row, col) ? CellType.OBSTACLE : CellType.FREE;
         return type;
     }
 
+    /**
+     * Sets the CellType of this Cell. If this Cell belongs to a Maze, the Maze
+     * is updated as well.
+     * 
+     * @param type the new CellType of this Cell.
+     */
     public void setType( CellType type ) {
-        this.type = type;
+        CellType oldType = getType();
+        if (maze == null || !maze.isPacked())
+            this.type = type;
+        if (maze != null && oldType != type)
+            maze.typeChanged(this, oldType);
+    }
+
+    /**
+     * Returns the Maze this Cell belongs to.
+     * 
+     * @return the Maze this Cell belongs to, or null if it is not part of one.
+     */
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Sets the Maze this Cell belongs to.
+     * 
+     * @param maze the Maze this Cell belongs to.
+     */
+    void setMaze(Maze maze) {
+        this.maze = maze;
     }
 
     /**
@@ -103,6 +175,8 @@ public class Cell {
      * @return true if this Cell has been visited, false otherwise.
      */
     public boolean visited() {
+        if (maze != null)
+            return maze.getSearchState().isVisited(maze.indexOf(this));
         return visited;
     }
 
@@ -112,6 +186,10 @@ public class Cell {
      * @param visited true if this Cell has been visited, false otherwise.
      */
     public void setVisited(boolean visited) {
+        if (maze != null) {
+            maze.getSearchState().setVisited(maze.indexOf(this), visited);
+            return;
+        }
         this.visited = visited;
     }
 
@@ -128,11 +206,11 @@ public class Cell {
         if (!(o instanceof Cell))
             return false;
         Cell c = (Cell) o;
-        return row == c.row && col == c.col && type == c.type;
+        return row == c.row && col == c.col && getType() == c.getType();
     }
 
     public String toString() {
-        return "(" + row + ", " + col + ", " + type + ")";
+        return "(" + row + ", " + col + ", " + getType() + ")";
     }
 
     /**
@@ -147,11 +225,23 @@ public class Cell {
      * @param scale the scale at which to draw this Cell.
      */
     public void drawType(Graphics g, int scale) {
+        drawType(g, scale, getPrev() != null);
+    }
+
+    /**
+     * Draws this Cell to the given Graphics object, using {@code visited} rather
+     * than this Cell's own state to decide between yellow and gray.
+     * 
+     * @param g       the Graphics object on which to draw.
+     * @param scale   the scale at which to draw this Cell.
+     * @param visited whether this Cell should be drawn as visited.
+     */
+    public void drawType(Graphics g, int scale, boolean visited) {
         g.setColor(Color.BLACK);
         g.drawRect(getCol() * scale, getRow() * scale, scale, scale);
         switch (getType()) {
             case FREE:
-                draw(g, scale, getPrev() != null ? Color.YELLOW : Color.GRAY);
+                draw(g, scale, visited ? Color.YELLOW : Color.GRAY);
                 break;
             case OBSTACLE:
                 draw(g, scale, Color.BLACK);
@@ -170,8 +260,12 @@ public class Cell {
      */
     public void drawAllPrevs(Maze maze, Graphics g, int scale, Color c) {
         g.setColor(c);
-        for (Cell neighbor : maze.getNeighbors(this)) {
-            if (neighbor.getPrev() == this) {
+        int mask = maze.getNeighborMask(row, col);
+        for (int direction = 0; direction < 4; direction++) {
+            if ((mask & (1 << direction)) == 0)
+                continue;
+            Cell neighbor = maze.getNeighbor(this, direction);
+            if (equals(neighbor.getPrev())) {
                 g.drawLine(getCol() * scale + scale / 2, getRow() * scale + scale / 2,
                         neighbor.getCol() * scale + scale / 2, neighbor.getRow() * scale + scale / 2);
                 neighbor.drawAllPrevs(maze, g, scale, c);
@@ -189,7 +283,7 @@ public class Cell {
      */
     public void drawPrevPath(Graphics g, int scale, Color c) {
         g.setColor(c);
-        if (getPrev() != null && getPrev() != this) {
+        if (getPrev() != null && !getPrev().equals(this)) {
             g.drawLine(getCol() * scale + scale / 2, getRow() * scale + scale / 2,
                     getPrev().getCol() * scale + scale / 2, getPrev().getRow() * scale + scale / 2);
             getPrev().drawPrevPath(g, scale, c);
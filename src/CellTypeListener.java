@@ -0,0 +1,10 @@
+public interface CellTypeListener {
+
+    /**
+     * Called after the type of a Cell in a Maze has changed.
+     * 
+     * @param cell    the Cell whose type changed.
+     * @param oldType the type the Cell had before the change.
+     */
+    public void cellTypeChanged(Cell cell, CellType oldType);
+}
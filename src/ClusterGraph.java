@@ -0,0 +1,611 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: An abstraction of a maze used for hierarchical pathfinding. The maze
+ * is cut into square clusters of a fixed size. Wherever free Cells face each other
+ * across the border between two clusters, the middle pair of each run of such Cells
+ * becomes an entrance, and its two Cells become nodes of an abstract graph joined by
+ * an edge of cost 1. Nodes in the same cluster are joined by edges whose cost is the
+ * length of the shortest path between them that stays inside the cluster.
+ *
+ * Two free Cells are connected in the abstract graph exactly when they are connected
+ * in the maze, but a path through the entrances may be a little longer than the
+ * shortest path.
+ *
+ * Everything is kept per cluster: its nodes, the distances between them, and for each
+ * node the direction from every Cell of the cluster one step closer to it, two bits a
+ * Cell. A path between two nodes of a cluster is walked from these without searching
+ * the cluster again. When the maze changes, only the clusters holding a Cell that
+ * changed, and the neighbors across any border such a Cell lies on, are rebuilt. The
+ * nodes are numbered cluster by cluster, and renumbered only when a cluster gains or
+ * loses nodes.
+ */
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+public class ClusterGraph {
+
+    /**
+     * The maze that was abstracted
+     */
+    private Maze maze;
+
+    /**
+     * The number of rows and columns of Cells in each cluster
+     */
+    private int clusterSize;
+
+    /**
+     * The number of clusters down and across the maze
+     */
+    private int clusterRows;
+    private int clusterCols;
+
+    /**
+     * The modification count of the maze and its free Cells, as returned by
+     * {@code getFreeWords}, when the graph was last brought up to date
+     */
+    private int builtAt;
+    private long[] builtFree;
+    private int rowWords;
+
+    /**
+     * Whether each cluster has changed since it was last built, and how many have
+     */
+    private boolean[] stale;
+    private int staleCount;
+
+    /**
+     * The index of the Cell of each node of each cluster
+     */
+    private int[][] nodeCells;
+
+    /**
+     * The Cells each node of each cluster faces across the borders of the cluster,
+     * two for each node, or -1 where there are fewer
+     */
+    private int[][] partners;
+
+    /**
+     * The length of the shortest path inside each cluster from each of its nodes
+     * to each other, from node i to node j at {@code i * nodes + j}, or -1 if there
+     * is none
+     */
+    private int[][] distances;
+
+    /**
+     * For each node of each cluster, the direction from every Cell of the cluster
+     * that leads one step closer to the node, two bits per Cell in the order up,
+     * down, right and left, with {@code treeWords} words per node
+     */
+    private long[][] trees;
+    private int treeWords;
+
+    /**
+     * One more than the position within its cluster of the node at each Cell on
+     * the border of each cluster, or 0 if there is none
+     */
+    private short[] borderNodes;
+
+    /**
+     * The nodes of cluster c are those from {@code firstNode[c]} up to
+     * {@code firstNode[c + 1]}
+     */
+    private int[] firstNode;
+
+    /**
+     * The cluster of each node
+     */
+    private int[] nodeCluster;
+
+    /**
+     * The distance and parent of each Cell of the cluster searched last, indexed
+     * by the Cell's position within the cluster, or -1 if it was not reached
+     */
+    private int[] localDist;
+    private int[] localParent;
+    private int[] localQueue;
+    private int searchedCluster;
+
+    /**
+     * Constructor for the ClusterGraph class. Builds the abstract graph of the
+     * maze with clusters of the given size.
+     *
+     * @param maze        the maze to abstract
+     * @param clusterSize the number of rows and columns of Cells in each cluster
+     */
+    public ClusterGraph(Maze maze, int clusterSize) {
+        if (clusterSize < 2)
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        this.maze = maze;
+        this.clusterSize = clusterSize;
+        clusterRows = (maze.getRows() + clusterSize - 1) / clusterSize;
+        clusterCols = (maze.getCols() + clusterSize - 1) / clusterSize;
+        rowWords = (maze.getCols() + 63) >>> 6;
+        treeWords = (clusterSize * clusterSize + 31) >>> 5;
+        localDist = new int[clusterSize * clusterSize];
+        localParent = new int[clusterSize * clusterSize];
+        localQueue = new int[clusterSize * clusterSize];
+
+        int clusters = clusterRows * clusterCols;
+        nodeCells = new int[clusters][];
+        partners = new int[clusters][];
+        distances = new int[clusters][];
+        trees = new long[clusters][];
+        borderNodes = new short[clusters * 4 * clusterSize];
+        stale = new boolean[clusters];
+        builtAt = maze.getModCount();
+        builtFree = maze.getFreeWords();
+        for (int cluster = 0; cluster < clusters; cluster++)
+            buildCluster(cluster);
+        numberNodes();
+    }
+
+    /**
+     * Brings the graph up to date with the maze, rebuilding only the clusters
+     * that changed since it was last brought up to date.
+     */
+    public void update() {
+        update(cells -> true);
+    }
+
+    /**
+     * Brings the graph up to date with the maze as far as the given limits allow,
+     * rebuilding only the clusters that changed since it was last brought up to
+     * date. Before each cluster is rebuilt the limits are asked whether the Cells
+     * of the cluster may be searched. If they say no, the clusters that are left
+     * are kept out of date, and the next call rebuilds them first. The graph may
+     * only be searched once this has returned true.
+     *
+     * @param withinLimits told the number of Cells about to be searched, and
+     *                     returns false if the update has to stop
+     * @return true if the graph is up to date, false if the limits stopped it
+     */
+    public boolean update(IntPredicate withinLimits) {
+        if (builtAt != maze.getModCount()) {
+            int cols = maze.getCols();
+            long[] free = maze.getFreeWords();
+            for (int word = 0; word < free.length; word++) {
+                long changed = free[word] ^ builtFree[word];
+                while (changed != 0) {
+                    int row = word / rowWords;
+                    int col = (word % rowWords << 6) + Long.numberOfTrailingZeros(changed);
+                    changed &= changed - 1;
+                    markChanged(row * cols + col);
+                }
+            }
+            builtAt = maze.getModCount();
+            builtFree = free;
+        }
+
+        boolean renumber = false;
+        boolean finished = true;
+        for (int cluster = 0; cluster < stale.length && staleCount > 0; cluster++) {
+            if (!stale[cluster])
+                continue;
+            if (!withinLimits.test(clusterSize * clusterSize)) {
+                finished = false;
+                break;
+            }
+            int before = nodeCells[cluster].length;
+            buildCluster(cluster);
+            renumber |= nodeCells[cluster].length != before;
+            stale[cluster] = false;
+            staleCount--;
+        }
+        if (renumber)
+            numberNodes();
+        return finished;
+    }
+
+    /**
+     * Marks the cluster of a Cell that changed as out of date, along with the
+     * neighbor across each border of the cluster that the Cell lies on, since
+     * the entrances across that border may have changed.
+     *
+     * @param idx the index of the Cell that changed
+     */
+    private void markChanged(int idx) {
+        int cluster = clusterOf(idx);
+        int row = idx / maze.getCols();
+        int col = idx % maze.getCols();
+        markStale(cluster);
+        if (row % clusterSize == 0 && row > 0)
+            markStale(cluster - clusterCols);
+        if (row % clusterSize == clusterSize - 1 && row + 1 < maze.getRows())
+            markStale(cluster + clusterCols);
+        if (col % clusterSize == 0 && col > 0)
+            markStale(cluster - 1);
+        if (col % clusterSize == clusterSize - 1 && col + 1 < maze.getCols())
+            markStale(cluster + 1);
+    }
+
+    /**
+     * Marks a cluster as out of date.
+     *
+     * @param cluster the cluster
+     */
+    private void markStale(int cluster) {
+        if (!stale[cluster]) {
+            stale[cluster] = true;
+            staleCount++;
+        }
+    }
+
+    /**
+     * Returns the maze that was abstracted.
+     *
+     * @return the maze that was abstracted
+     */
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Returns the number of rows and columns of Cells in each cluster.
+     *
+     * @return the cluster size
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Returns the number of nodes in the graph.
+     *
+     * @return the number of nodes
+     */
+    public int countNodes() {
+        return nodeCluster.length;
+    }
+
+    /**
+     * Returns the index of the Cell of the given node.
+     *
+     * @param node the node
+     * @return the index of its Cell
+     */
+    public int getNodeCell(int node) {
+        int cluster = nodeCluster[node];
+        return nodeCells[cluster][node - firstNode[cluster]];
+    }
+
+    /**
+     * Returns the cluster of the given node.
+     *
+     * @param node the node
+     * @return the cluster containing its Cell
+     */
+    public int getNodeCluster(int node) {
+        return nodeCluster[node];
+    }
+
+    /**
+     * Returns the node at the Cell with the given index.
+     *
+     * @param idx the index of the Cell
+     * @return the node at the Cell, or -1 if the Cell is not a node
+     */
+    public int nodeAt(int idx) {
+        int slot = borderSlot(idx);
+        if (slot == -1 || borderNodes[slot] == 0)
+            return -1;
+        return firstNode[clusterOf(idx)] + borderNodes[slot] - 1;
+    }
+
+    /**
+     * Returns the cluster containing the Cell with the given index.
+     *
+     * @param idx the index of the Cell
+     * @return the cluster containing it
+     */
+    public int clusterOf(int idx) {
+        int cols = maze.getCols();
+        return (idx / cols / clusterSize) * clusterCols + (idx % cols) / clusterSize;
+    }
+
+    /**
+     * Returns the first node of the given cluster.
+     *
+     * @param cluster the cluster
+     * @return the first node of the cluster
+     */
+    public int firstNode(int cluster) {
+        return firstNode[cluster];
+    }
+
+    /**
+     * Returns the node after the last one of the given cluster.
+     *
+     * @param cluster the cluster
+     * @return the node after the last one of the cluster
+     */
+    public int endNode(int cluster) {
+        return firstNode[cluster + 1];
+    }
+
+    /**
+     * Returns the length of the shortest path between two nodes of the same
+     * cluster that stays inside the cluster.
+     *
+     * @param node  the node the path leaves
+     * @param other the node the path goes to, in the same cluster
+     * @return the length of the path, or -1 if there is none
+     */
+    public int getDistance(int node, int other) {
+        int cluster = nodeCluster[node];
+        int first = firstNode[cluster];
+        return distances[cluster][(node - first) * nodeCells[cluster].length + other - first];
+    }
+
+    /**
+     * Returns a node the given node faces across a border of its cluster. Each
+     * node faces one or two others.
+     *
+     * @param node the node
+     * @param i    0 for the first node it faces, 1 for the second
+     * @return the node faced, or -1 if there is none
+     */
+    public int getPartner(int node, int i) {
+        int cluster = nodeCluster[node];
+        int cell = partners[cluster][2 * (node - firstNode[cluster]) + i];
+        return cell == -1 ? -1 : nodeAt(cell);
+    }
+
+    /**
+     * Returns the Cell one step closer to the given node from the Cell with the
+     * given index, on a shortest path inside the node's cluster.
+     *
+     * @param idx  the index of a Cell in the node's cluster with a path to the node
+     * @param node the node
+     * @return the index of the next Cell on the path to the node
+     */
+    public int stepTowards(int idx, int node) {
+        int cols = maze.getCols();
+        int cluster = nodeCluster[node];
+        int local = (idx / cols % clusterSize) * clusterSize + idx % cols % clusterSize;
+        long word = trees[cluster][(node - firstNode[cluster]) * treeWords + (local >>> 5)];
+        switch ((int) (word >>> ((local & 31) << 1)) & 3) {
+            case 0:
+                return idx - cols;
+            case 1:
+                return idx + cols;
+            case 2:
+                return idx + 1;
+            default:
+                return idx - 1;
+        }
+    }
+
+    /**
+     * Finds the shortest paths from the Cell with the given index to every Cell of
+     * its cluster, without leaving the cluster. They are read back with
+     * {@code clusterDistance} and {@code clusterParent} until the next call.
+     *
+     * @param from the index of the Cell to search from
+     */
+    public void searchCluster(int from) {
+        int cols = maze.getCols();
+        searchedCluster = clusterOf(from);
+        int row0 = (searchedCluster / clusterCols) * clusterSize;
+        int col0 = (searchedCluster % clusterCols) * clusterSize;
+        int height = Math.min(clusterSize, maze.getRows() - row0);
+        int width = Math.min(clusterSize, cols - col0);
+        Arrays.fill(localDist, -1);
+
+        int start = (from / cols - row0) * clusterSize + (from % cols - col0);
+        localDist[start] = 0;
+        localParent[start] = start;
+        localQueue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int cur = localQueue[head++];
+            int row = cur / clusterSize;
+            int col = cur % clusterSize;
+            int mask = maze.getNeighborMask(row0 + row, col0 + col);
+            for (int direction = 0; direction < 4; direction++) {
+                if ((mask & (1 << direction)) == 0)
+                    continue;
+                int nextRow = row + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+                int nextCol = col + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+                if (nextRow < 0 || nextRow >= height || nextCol < 0 || nextCol >= width)
+                    continue;
+                int next = nextRow * clusterSize + nextCol;
+                if (localDist[next] != -1)
+                    continue;
+                localDist[next] = localDist[cur] + 1;
+                localParent[next] = cur;
+                localQueue[tail++] = next;
+            }
+        }
+    }
+
+    /**
+     * Returns the distance found by the last {@code searchCluster} to the Cell with
+     * the given index.
+     *
+     * @param idx the index of the Cell
+     * @return the distance, or -1 if the Cell is outside the cluster or was not reached
+     */
+    public int clusterDistance(int idx) {
+        int local = toLocal(idx);
+        return local == -1 ? -1 : localDist[local];
+    }
+
+    /**
+     * Returns the Cell before the Cell with the given index on the shortest path
+     * found by the last {@code searchCluster}.
+     *
+     * @param idx the index of a Cell that was reached
+     * @return the index of the Cell before it, or the same index for the Cell searched from
+     */
+    public int clusterParent(int idx) {
+        int local = localParent[toLocal(idx)];
+        int row0 = (searchedCluster / clusterCols) * clusterSize;
+        int col0 = (searchedCluster % clusterCols) * clusterSize;
+        return (row0 + local / clusterSize) * maze.getCols() + col0 + local % clusterSize;
+    }
+
+    /**
+     * Returns the position of the Cell with the given index within the cluster
+     * searched last.
+     *
+     * @param idx the index of the Cell
+     * @return its position within the cluster, or -1 if it is outside the cluster
+     */
+    private int toLocal(int idx) {
+        if (clusterOf(idx) != searchedCluster)
+            return -1;
+        int cols = maze.getCols();
+        return (idx / cols % clusterSize) * clusterSize + idx % cols % clusterSize;
+    }
+
+    /**
+     * Returns the position of the node at the Cell with the given index in
+     * {@code borderNodes}.
+     *
+     * @param idx the index of the Cell
+     * @return its position, or -1 if the Cell is not on the border of its cluster
+     */
+    private int borderSlot(int idx) {
+        int cols = maze.getCols();
+        int row = idx / cols % clusterSize;
+        int col = idx % cols % clusterSize;
+        int height = Math.min(clusterSize, maze.getRows() - (idx / cols - row));
+        int width = Math.min(clusterSize, cols - (idx % cols - col));
+        int base = clusterOf(idx) * 4 * clusterSize;
+        if (row == 0)
+            return base + col;
+        if (row == height - 1)
+            return base + clusterSize + col;
+        if (col == 0)
+            return base + 2 * clusterSize + row;
+        if (col == width - 1)
+            return base + 3 * clusterSize + row;
+        return -1;
+    }
+
+    /**
+     * Finds the entrances across the border between the given cluster and the
+     * one to its right or below it. The middle pair of each run of free Cells
+     * facing each other across the border is an entrance.
+     *
+     * @param cluster the cluster on the left of or above the border
+     * @param right   true for the border on the right, false for the one below
+     * @param first   the Cell on the given cluster's side of each entrance
+     * @param second  the Cell on the other side of each entrance
+     */
+    private void findEntrances(int cluster, boolean right, IntDeque first, IntDeque second) {
+        int rows = maze.getRows();
+        int cols = maze.getCols();
+        int row0 = (cluster / clusterCols) * clusterSize;
+        int col0 = (cluster % clusterCols) * clusterSize;
+        int rowEnd = Math.min(row0 + clusterSize, rows);
+        int colEnd = Math.min(col0 + clusterSize, cols);
+        int runStart = -1;
+        if (right) {
+            for (int r = row0; r <= rowEnd; r++) {
+                boolean open = r < rowEnd && !maze.isObstacle(r, colEnd - 1) && !maze.isObstacle(r, colEnd);
+                if (open && runStart == -1) {
+                    runStart = r;
+                } else if (!open && runStart != -1) {
+                    int mid = (runStart + r - 1) / 2;
+                    first.offerInt(mid * cols + colEnd - 1);
+                    second.offerInt(mid * cols + colEnd);
+                    runStart = -1;
+                }
+            }
+        } else {
+            for (int c = col0; c <= colEnd; c++) {
+                boolean open = c < colEnd && !maze.isObstacle(rowEnd - 1, c) && !maze.isObstacle(rowEnd, c);
+                if (open && runStart == -1) {
+                    runStart = c;
+                } else if (!open && runStart != -1) {
+                    int mid = (runStart + c - 1) / 2;
+                    first.offerInt((rowEnd - 1) * cols + mid);
+                    second.offerInt(rowEnd * cols + mid);
+                    runStart = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the nodes of the given cluster from the entrances across its four
+     * borders, then the shortest paths between them inside the cluster.
+     *
+     * @param cluster the cluster
+     */
+    private void buildCluster(int cluster) {
+        int cr = cluster / clusterCols;
+        int cc = cluster % clusterCols;
+        if (nodeCells[cluster] != null) {
+            for (int cell : nodeCells[cluster])
+                borderNodes[borderSlot(cell)] = 0;
+        }
+
+        // The Cells inside and outside the cluster of each entrance across its borders
+        IntDeque inside = new IntDeque();
+        IntDeque outside = new IntDeque();
+        if (cc + 1 < clusterCols)
+            findEntrances(cluster, true, inside, outside);
+        if (cr + 1 < clusterRows)
+            findEntrances(cluster, false, inside, outside);
+        if (cc > 0)
+            findEntrances(cluster - 1, true, outside, inside);
+        if (cr > 0)
+            findEntrances(cluster - clusterCols, false, outside, inside);
+
+        // A Cell at a corner of the cluster may be part of two entrances, but is one node
+        int[] cells = new int[inside.size()];
+        int[] faced = new int[2 * inside.size()];
+        Arrays.fill(faced, -1);
+        int nodes = 0;
+        while (!inside.isEmpty()) {
+            int cell = inside.pollInt();
+            int slot = borderSlot(cell);
+            int local = borderNodes[slot] - 1;
+            if (local == -1) {
+                local = nodes++;
+                cells[local] = cell;
+                borderNodes[slot] = (short) nodes;
+            }
+            faced[2 * local + (faced[2 * local] == -1 ? 0 : 1)] = outside.pollInt();
+        }
+        nodeCells[cluster] = Arrays.copyOf(cells, nodes);
+        partners[cluster] = Arrays.copyOf(faced, 2 * nodes);
+
+        // Search the cluster from each node, keeping the distances to the other
+        // nodes and the direction back to the node from every Cell reached
+        int[] dist = new int[nodes * nodes];
+        long[] tree = new long[nodes * treeWords];
+        for (int i = 0; i < nodes; i++) {
+            searchCluster(cells[i]);
+            for (int j = 0; j < nodes; j++)
+                dist[i * nodes + j] = clusterDistance(cells[j]);
+            for (int local = 0; local < localDist.length; local++) {
+                if (localDist[local] <= 0)
+                    continue;
+                int step = localParent[local] - local;
+                long direction = step == -clusterSize ? 0 : step == clusterSize ? 1 : step == 1 ? 2 : 3;
+                tree[i * treeWords + (local >>> 5)] |= direction << ((local & 31) << 1);
+            }
+        }
+        distances[cluster] = dist;
+        trees[cluster] = tree;
+    }
+
+    /**
+     * Numbers the nodes cluster by cluster.
+     */
+    private void numberNodes() {
+        firstNode = new int[nodeCells.length + 1];
+        for (int cluster = 0; cluster < nodeCells.length; cluster++)
+            firstNode[cluster + 1] = firstNode[cluster] + nodeCells[cluster].length;
+        nodeCluster = new int[firstNode[nodeCells.length]];
+        for (int cluster = 0; cluster < nodeCells.length; cluster++)
+            Arrays.fill(nodeCluster, firstNode[cluster], firstNode[cluster + 1], cluster);
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A class that labels the connected components of the free Cells in
+ * a maze, so that whether one Cell can reach another is answered in O(1). The labels
+ * are computed with a single row-by-row scan using union-find. Every component is
+ * labeled with the smallest index (row * cols + col) of the Cells in it.
+ * 
+ * Large mazes can be labeled in parallel: horizontal stripes of rows are labeled
+ * independently on a fork-join pool, then the stripes are joined across their
+ * boundaries with a lock-free union-find. Since every component is still labeled with
+ * its smallest index, the result is exactly the same as the sequential labeling.
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ForkJoinPool;
+
+public class ConnectedComponents implements ReachabilityIndex {
+
+    /**
+     * Gives atomic access to the elements of the labels array while stripes are
+     * being joined.
+     */
+    private static final VarHandle LABEL = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * The smallest number of rows worth giving their own stripe.
+     */
+    private static final int MIN_STRIPE_ROWS = 64;
+
+    /**
+     * The maze that was labeled
+     */
+    private Maze maze;
+
+    /**
+     * The label of each Cell, indexed by the Cell's index in the maze, or -1 for
+     * OBSTACLE Cells
+     */
+    private int[] labels;
+
+    /**
+     * Constructor for the ConnectedComponents class. Labels every free Cell of the
+     * maze. The labels are not updated if the maze changes afterwards.
+     *
+     * @param maze the maze to label
+     */
+    public ConnectedComponents(Maze maze) {
+        this(maze, false);
+    }
+
+    /**
+     * Constructor for the ConnectedComponents class that optionally labels the maze
+     * in parallel on the common fork-join pool. The labels are the same either way.
+     *
+     * @param maze     the maze to label
+     * @param parallel whether to label stripes of rows in parallel
+     */
+    public ConnectedComponents(Maze maze, boolean parallel) {
+        this.maze = maze;
+        int rows = maze.getRows();
+        labels = new int[rows * maze.getCols()];
+
+        int stripes = 1;
+        if (parallel)
+            stripes = Math.min(4 * ForkJoinPool.getCommonPoolParallelism(), rows / MIN_STRIPE_ROWS);
+        if (stripes <= 1) {
+            labelRows(0, rows);
+            // replace every parent link with the root of its component
+            for (int idx = 0; idx < labels.length; idx++) {
+                if (labels[idx] != -1)
+                    labels[idx] = labels[labels[idx]];
+            }
+            return;
+        }
+
+        int stripeRows = (rows + stripes - 1) / stripes;
+        int count = (rows + stripeRows - 1) / stripeRows;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        // First label every stripe on its own, then join each stripe to the one above it
+        pool.invoke(new RangeTask(0, count, s -> labelRows(s * stripeRows, Math.min(rows, (s + 1) * stripeRows))));
+        pool.invoke(new RangeTask(1, count, s -> joinBoundary(s * stripeRows)));
+        pool.invoke(new RangeTask(0, count, s -> flatten(s * stripeRows, Math.min(rows, (s + 1) * stripeRows))));
+    }
+
+    /**
+     * Labels the given rows, joining every free Cell with its free left neighbor
+     * and with its free upper neighbor if that is also in the given rows. Every
+     * link points to a smaller index within the rows.
+     *
+     * @param fromRow the first row to label
+     * @param toRow   one past the last row to label
+     */
+    private void labelRows(int fromRow, int toRow) {
+        int cols = maze.getCols();
+        for (int r = fromRow; r < toRow; r++) {
+            for (int c = 0; c < cols; c++) {
+                int idx = r * cols + c;
+                if (maze.isObstacle(r, c)) {
+                    labels[idx] = -1;
+                    continue;
+                }
+                labels[idx] = idx;
+                if (c > 0 && labels[idx - 1] != -1)
+                    union(labels, idx, idx - 1);
+                if (r > fromRow && labels[idx - cols] != -1)
+                    union(labels, idx, idx - cols);
+            }
+        }
+    }
+
+    /**
+     * Joins the free Cells of the given row with the free Cells directly above
+     * them. This may run at the same time as the other boundaries.
+     *
+     * @param row the first row of a stripe
+     */
+    private void joinBoundary(int row) {
+        int cols = maze.getCols();
+        for (int idx = row * cols; idx < (row + 1) * cols; idx++) {
+            if (labels[idx] != -1 && labels[idx - cols] != -1)
+                concurrentUnion(idx, idx - cols);
+        }
+    }
+
+    /**
+     * Replaces the parent link of every Cell in the given rows with the root of
+     * its component. This may run at the same time as the other stripes, as other
+     * threads only ever replace a link with the root it leads to.
+     *
+     * @param fromRow the first row to flatten
+     * @param toRow   one past the last row to flatten
+     */
+    private void flatten(int fromRow, int toRow) {
+        int cols = maze.getCols();
+        for (int idx = fromRow * cols; idx < toRow * cols; idx++) {
+            if (labels[idx] != -1)
+                LABEL.setRelease(labels, idx, concurrentFind(idx));
+        }
+    }
+
+    /**
+     * Returns the root of the component containing the given index, reading the
+     * links atomically.
+     *
+     * @param idx the index to look up
+     * @return the root of the component
+     */
+    private int concurrentFind(int idx) {
+        int parent = (int) LABEL.getAcquire(labels, idx);
+        while (parent != idx) {
+            idx = parent;
+            parent = (int) LABEL.getAcquire(labels, idx);
+        }
+        return idx;
+    }
+
+    /**
+     * Joins the components containing the two given indices without locking. The
+     * larger root is linked below the smaller one with a compare-and-set, which is
+     * retried if another thread linked that root first.
+     *
+     * @param a the first index
+     * @param b the second index
+     */
+    private void concurrentUnion(int a, int b) {
+        while (true) {
+            int rootA = concurrentFind(a);
+            int rootB = concurrentFind(b);
+            if (rootA == rootB)
+                return;
+            int larger = Math.max(rootA, rootB);
+            int smaller = Math.min(rootA, rootB);
+            if (LABEL.compareAndSet(labels, larger, larger, smaller))
+                return;
+        }
+    }
+
+    /**
+     * Returns the root of the component containing the given index, halving the
+     * path to it along the way.
+     *
+     * @param parent the union-find parent links
+     * @param idx    the index to look up
+     * @return the root of the component
+     */
+    static int find(int[] parent, int idx) {
+        while (parent[idx] != idx) {
+            parent[idx] = parent[parent[idx]];
+            idx = parent[idx];
+        }
+        return idx;
+    }
+
+    /**
+     * Joins the components containing the two given indices. The larger root is
+     * always linked below the smaller one, so every root is the smallest index in
+     * its component.
+     *
+     * @param parent the union-find parent links
+     * @param a      the first index
+     * @param b      the second index
+     */
+    static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA < rootB)
+            parent[rootB] = rootA;
+        else if (rootB < rootA)
+            parent[rootA] = rootB;
+    }
+
+    /**
+     * Returns the maze that was labeled.
+     *
+     * @return the maze that was labeled
+     */
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Returns the label of the component containing the given Cell.
+     *
+     * @param cell the Cell
+     * @return the label of its component, or -1 if the Cell is an OBSTACLE
+     */
+    public int getLabel(Cell cell) {
+        return labels[maze.indexOf(cell)];
+    }
+
+    /**
+     * Returns the label of the component containing the Cell with the given index.
+     *
+     * @param idx the index of the Cell
+     * @return the label of its component, or -1 if the Cell is an OBSTACLE
+     */
+    public int getLabel(int idx) {
+        return labels[idx];
+    }
+
+    /**
+     * Returns the number of connected components of free Cells.
+     *
+     * @return the number of connected components
+     */
+    public int countComponents() {
+        int count = 0;
+        for (int idx = 0; idx < labels.length; idx++) {
+            if (labels[idx] == idx)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether the two Cells are free and in the same component.
+     *
+     * @param from the Cell to start from
+     * @param to   the Cell to reach
+     * @return true if {@code to} can be reached from {@code from}, false otherwise
+     */
+    @Override
+    public boolean isReachable(Cell from, Cell to) {
+        int label = getLabel(from);
+        return label != -1 && label == getLabel(to);
+    }
+}
@@ -0,0 +1,268 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+public abstract class ConnectivityTests {
+
+	/**
+	 * Labels the components of free Cells by flooding out from each unlabeled
+	 * free Cell in turn.
+	 *
+	 * @param maze the maze to label
+	 * @return the label of each Cell by index, or -1 for obstacles
+	 */
+	static int[] floodLabels( Maze maze ){
+		int rows = maze.getRows();
+		int cols = maze.getCols();
+		int[] labels = new int[rows * cols];
+		Arrays.fill( labels, -1 );
+		int[] queue = new int[rows * cols];
+		int next = 0;
+		for ( int idx = 0 ; idx < labels.length ; idx ++ ){
+			if ( labels[idx] != -1 || maze.isObstacle( idx / cols, idx % cols ) ){
+				continue;
+			}
+			int head = 0;
+			int tail = 0;
+			labels[idx] = next;
+			queue[tail ++] = idx;
+			while ( head < tail ){
+				int cur = queue[head ++];
+				int row = cur / cols;
+				int col = cur % cols;
+				int[][] steps = { { row - 1, col }, { row + 1, col }, { row, col - 1 }, { row, col + 1 } };
+				for ( int[] step : steps ){
+					if ( step[0] < 0 || step[0] >= rows || step[1] < 0 || step[1] >= cols ){
+						continue;
+					}
+					int neighbor = step[0] * cols + step[1];
+					if ( labels[neighbor] == -1 && !maze.isObstacle( step[0], step[1] ) ){
+						labels[neighbor] = next;
+						queue[tail ++] = neighbor;
+					}
+				}
+			}
+			next ++;
+		}
+		return labels;
+	}
+
+	/**
+	 * Returns whether the given labels split the free Cells into the same
+	 * components as the flood labels, and give obstacles -1.
+	 *
+	 * @param flood  the flood labels
+	 * @param labels the labels to check, by index
+	 * @return true if both labelings have the same components
+	 */
+	static boolean sameComponents( int[] flood, int[] labels ){
+		int[] toLabel = new int[flood.length];
+		Arrays.fill( toLabel, Integer.MIN_VALUE );
+		HashMap<Integer, Integer> toFlood = new HashMap<>();
+		for ( int idx = 0 ; idx < flood.length ; idx ++ ){
+			if ( flood[idx] == -1 || labels[idx] == -1 ){
+				if ( flood[idx] != labels[idx] ){
+					return false;
+				}
+				continue;
+			}
+			if ( toLabel[flood[idx]] == Integer.MIN_VALUE ){
+				toLabel[flood[idx]] = labels[idx];
+			}
+			Integer other = toFlood.putIfAbsent( labels[idx], flood[idx] );
+			if ( toLabel[flood[idx]] != labels[idx] || ( other != null && other != flood[idx] ) ){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a random maze of a random size, at least 5 by 5, and often wider than
+	 * the 64 columns of one word of a packed row.
+	 *
+	 * @param rand the random numbers to use
+	 * @return the maze
+	 */
+	static Maze randomMaze( Random rand ){
+		return randomMaze( rand, 64, 200 );
+	}
+
+	/**
+	 * Returns a random maze of a random size, at least 5 by 5.
+	 *
+	 * @param rand    the random numbers to use
+	 * @param maxSize the largest number of rows or columns, at least 5
+	 * @return the maze
+	 */
+	static Maze randomMaze( Random rand, int maxSize ){
+		return randomMaze( rand, maxSize, maxSize );
+	}
+
+	/**
+	 * Returns a random maze of a random size, at least 5 by 5.
+	 *
+	 * @param rand    the random numbers to use
+	 * @param maxRows the largest number of rows, at least 5
+	 * @param maxCols the largest number of columns, at least 5
+	 * @return the maze
+	 */
+	static Maze randomMaze( Random rand, int maxRows, int maxCols ){
+		return new Maze( 5 + rand.nextInt( maxRows - 4 ), 5 + rand.nextInt( maxCols - 4 ), 0.5 * rand.nextDouble(), rand.nextLong(), rand.nextBoolean() );
+	}
+
+	/**
+	 * Switches the given number of random Cells between FREE and OBSTACLE.
+	 *
+	 * @param maze  the maze to change
+	 * @param rand  the random numbers to use
+	 * @param flips the number of Cells to switch
+	 */
+	static void flip( Maze maze, Random rand, int flips ){
+		for ( int f = 0 ; f < flips ; f ++ ){
+			Cell cell = maze.get( rand.nextInt( maze.getRows() ), rand.nextInt( maze.getCols() ) );
+			cell.setType( cell.getType() == CellType.OBSTACLE ? CellType.FREE : CellType.OBSTACLE );
+		}
+	}
+
+	/**
+	 * Returns whether the Cell with the given index is set in a bitset of a
+	 * BitParallelFlood, in which every row starts on a new word.
+	 *
+	 * @param bits the bitset
+	 * @param cols the number of columns of the maze
+	 * @param idx  the index of the Cell
+	 * @return true if the Cell is set, false otherwise
+	 */
+	static boolean isSet( long[] bits, int cols, int idx ){
+		int col = idx % cols;
+		return ( bits[idx / cols * ( ( cols + 63 ) >>> 6 ) + ( col >>> 6 )] & ( 1L << col ) ) != 0;
+	}
+
+	public static double connectivityTests(){
+		Random rand = new Random();
+		int restarts = 200 ;
+
+		int score = 0 ;
+
+		/**
+		 * Label the components of random mazes
+		 */
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts ; r ++ ){
+				Maze maze = randomMaze( rand );
+				ConnectedComponents components = new ConnectedComponents( maze, false );
+				int[] flood = floodLabels( maze );
+				int[] labels = new int[flood.length];
+				int count = 0;
+				for ( int idx = 0 ; idx < labels.length ; idx ++ ){
+					labels[idx] = components.getLabel( idx );
+					count = Math.max( count, flood[idx] + 1 );
+				}
+				testPassed &= sameComponents( flood, labels ) && components.countComponents() == count;
+				testPassed &= components.isReachable( maze.getStart(), maze.getTarget() )
+					== ( flood[maze.indexOf( maze.getStart() )] == flood[maze.indexOf( maze.getTarget() )] );
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 1" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Label mazes tall enough to be cut into stripes in parallel, which must give
+		 * the same labels as labeling them serially
+		 */
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 10 ; r ++ ){
+				Maze maze = new Maze( 128 + rand.nextInt( 400 ), 5 + rand.nextInt( 200 ), 0.5 * rand.nextDouble(), rand.nextLong(), rand.nextBoolean() );
+				ConnectedComponents serial = new ConnectedComponents( maze, false );
+				ConnectedComponents parallel = new ConnectedComponents( maze, true );
+				int[] flood = floodLabels( maze );
+				int[] labels = new int[flood.length];
+				for ( int idx = 0 ; idx < labels.length ; idx ++ ){
+					labels[idx] = parallel.getLabel( idx );
+					testPassed &= labels[idx] == serial.getLabel( idx );
+				}
+				testPassed &= sameComponents( flood, labels );
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 2" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Keep the components of random mazes up to date while Cells are blocked and freed
+		 */
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 4 ; r ++ ){
+				Maze maze = randomMaze( rand );
+				DynamicConnectivity connectivity = maze.getConnectivity();
+				int cells = maze.getRows() * maze.getCols();
+				for ( int round = 0 ; round < 20 ; round ++ ){
+					flip( maze, rand, 1 + rand.nextInt( 3 * round + 1 ) );
+					int[] flood = floodLabels( maze );
+					int[] labels = new int[cells];
+					for ( int idx = 0 ; idx < cells ; idx ++ ){
+						labels[idx] = connectivity.getComponent( idx );
+					}
+					testPassed &= sameComponents( flood, labels ) && connectivity.getIdCapacity() <= 2 * cells;
+					testPassed &= connectivity.isReachable( maze.getStart(), maze.getTarget() )
+						== ( flood[maze.indexOf( maze.getStart() )] != -1 && flood[maze.indexOf( maze.getStart() )] == flood[maze.indexOf( maze.getTarget() )] );
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 3" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Flood one maze from many sources while Cells are blocked and freed, and
+		 * check the Cells reached and the rings around each source against its
+		 * distance field
+		 */
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 4 ; r ++ ){
+				Maze maze = randomMaze( rand );
+				BitParallelFlood flood = new BitParallelFlood( maze );
+				DistanceFieldCache fields = new DistanceFieldCache( maze );
+				int cols = maze.getCols();
+				for ( int round = 0 ; round < 10 ; round ++ ){
+					flip( maze, rand, rand.nextInt( 20 ) );
+					int source = maze.indexOf( PathTests.randomFreeCell( maze, rand ) );
+					int[] field = fields.getField( source );
+					int farthest = 0;
+					long[] reachable = flood.reachable( source );
+					for ( int idx = 0 ; idx < field.length ; idx ++ ){
+						testPassed &= isSet( reachable, cols, idx ) == ( field[idx] != -1 );
+						farthest = Math.max( farthest, field[idx] );
+					}
+					int distance = rand.nextInt( farthest + 2 );
+					long[] ring = flood.ring( source, distance );
+					for ( int idx = 0 ; idx < field.length ; idx ++ ){
+						testPassed &= isSet( ring, cols, idx ) == ( field[idx] == distance );
+					}
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 4" );
+				score ++;
+			}
+		}
+
+		return score ;
+	}
+
+	public static void main( String[] args ) {
+
+		System.out.println( connectivityTests() + "/4" );
+
+	}
+
+}
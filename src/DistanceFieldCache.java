@@ -0,0 +1,198 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A cache of distance fields for the targets of a maze. The distance
+ * field of a target holds the number of steps from every Cell to the target, found by
+ * one breadth-first search outwards from the target. Once a target's field is known, a
+ * shortest path to it from any Cell is found by always stepping to a neighbor that is
+ * one step closer, without searching at all.
+ *
+ * Each field takes one int per Cell, so only the fields of the most recently used
+ * targets are kept. Every field is thrown away as soon as the maze changes.
+ */
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+public class DistanceFieldCache {
+
+    /**
+     * The number of fields kept when no capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * The maze the fields belong to
+     */
+    private Maze maze;
+
+    /**
+     * The field of each cached target, keyed by the target's index, in order from
+     * least to most recently used
+     */
+    private LinkedHashMap<Integer, int[]> fields;
+
+    /**
+     * The modification count of the maze when the cached fields were computed
+     */
+    private int builtAt;
+
+    /**
+     * The index offsets of the neighbors up, down, right and left of a Cell
+     */
+    private int[] offsets;
+
+    /**
+     * Constructor for the DistanceFieldCache class that keeps the default number
+     * of fields.
+     *
+     * @param maze the maze the fields belong to
+     */
+    public DistanceFieldCache(Maze maze) {
+        this(maze, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for the DistanceFieldCache class.
+     *
+     * @param maze     the maze the fields belong to
+     * @param capacity the number of fields to keep
+     */
+    public DistanceFieldCache(Maze maze, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        this.maze = maze;
+        this.builtAt = maze.getModCount();
+        this.offsets = new int[] { -maze.getCols(), maze.getCols(), 1, -1 };
+        this.fields = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the maze the fields belong to.
+     *
+     * @return the maze the fields belong to
+     */
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Returns the number of fields cached.
+     *
+     * @return the number of fields cached
+     */
+    public int size() {
+        return fields.size();
+    }
+
+    /**
+     * Returns the distance field of the target with the given index, computing it
+     * if it is not cached. The array must not be modified.
+     *
+     * @param target the index of the target Cell
+     * @return the number of steps from each Cell to the target, indexed by the
+     *         Cell's index, or -1 for Cells that cannot reach it
+     */
+    public int[] getField(int target) {
+        return getField(target, cells -> true);
+    }
+
+    /**
+     * Returns the distance field of the target with the given index, computing it
+     * if it is not cached and the given limits allow. The limits are asked before
+     * each Cell the search outwards from the target expands. A field the limits
+     * stopped is not cached. The array must not be modified.
+     *
+     * @param target       the index of the target Cell
+     * @param withinLimits told the number of Cells about to be expanded, and
+     *                     returns false if the search has to stop
+     * @return the number of steps from each Cell to the target, indexed by the
+     *         Cell's index, or -1 for Cells that cannot reach it, or null if the
+     *         limits stopped the search
+     */
+    public int[] getField(int target, IntPredicate withinLimits) {
+        if (builtAt != maze.getModCount()) {
+            fields.clear();
+            builtAt = maze.getModCount();
+        }
+        int[] field = fields.get(target);
+        if (field == null) {
+            field = computeField(target, withinLimits);
+            if (field != null)
+                fields.put(target, field);
+        }
+        return field;
+    }
+
+    /**
+     * Returns the distance field of the given target.
+     *
+     * @param target the target Cell
+     * @return the number of steps from each Cell to the target
+     */
+    public int[] getField(Cell target) {
+        return getField(maze.indexOf(target));
+    }
+
+    /**
+     * Runs a breadth-first search outwards from the given target.
+     *
+     * @param target       the index of the target Cell
+     * @param withinLimits told the number of Cells about to be expanded, and
+     *                     returns false if the search has to stop
+     * @return the number of steps from each Cell to the target, or -1 for Cells
+     *         that cannot reach it, or null if the limits stopped the search
+     */
+    private int[] computeField(int target, IntPredicate withinLimits) {
+        int cols = maze.getCols();
+        int[] field = new int[maze.getRows() * cols];
+        Arrays.fill(field, -1);
+        if (maze.isObstacle(target / cols, target % cols))
+            return field;
+
+        IntDeque queue = new IntDeque();
+        field[target] = 0;
+        queue.offerInt(target);
+        while (!queue.isEmpty()) {
+            if (!withinLimits.test(1))
+                return null;
+            int cur = queue.pollInt();
+            int mask = maze.getNeighborMask(cur / cols, cur % cols);
+            for (int direction = 0; direction < 4; direction++) {
+                if ((mask & (1 << direction)) == 0)
+                    continue;
+                int next = cur + offsets[direction];
+                if (field[next] == -1) {
+                    field[next] = field[cur] + 1;
+                    queue.offerInt(next);
+                }
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Returns the neighbor of the Cell with the given index that is one step
+     * closer to the target of the given field.
+     *
+     * @param field the distance field of the target
+     * @param idx   the index of a Cell that can reach the target but is not the target
+     * @return the index of the neighbor one step closer to the target
+     */
+    public int stepTowards(int[] field, int idx) {
+        int cols = maze.getCols();
+        int mask = maze.getNeighborMask(idx / cols, idx % cols);
+        for (int direction = 0; direction < 4; direction++) {
+            if ((mask & (1 << direction)) != 0 && field[idx + offsets[direction]] == field[idx] - 1)
+                return idx + offsets[direction];
+        }
+        throw new IllegalStateException("No neighbor of " + idx + " is closer to the target");
+    }
+}
@@ -0,0 +1,433 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A class that keeps track of which free Cells of a maze are
+ * connected while Cells change type, so reachability is always answered in nearly
+ * O(1) without rescanning the maze.
+ *
+ * Every free Cell holds a component id, and ids are joined with union-find. Freeing a
+ * Cell only joins the ids of its free neighbors. Turning a Cell into an OBSTACLE may
+ * split its component, so a flood is started from each of its free neighbors and
+ * the floods take turns expanding one Cell at a time. Floods that meet are merged.
+ * As soon as at most one group of floods is still growing, every group that stopped
+ * growing is a separate component and its Cells get a new id. The work done is
+ * proportional to the size of the pieces that broke off, not to the whole maze.
+ *
+ * Ids that are no longer used are not freed one by one. Instead, once every id has
+ * been handed out, the labels are compacted so the live components take the lowest
+ * ids again. This only happens after as many changes as there are ids, so it costs
+ * O(1) per change on average and the ids never need more than a few times as much
+ * memory as the maze. Component ids can therefore change whenever a Cell does.
+ */
+
+import java.util.Arrays;
+
+public class DynamicConnectivity implements ReachabilityIndex, CellTypeListener {
+
+    /**
+     * The maze being tracked
+     */
+    private Maze maze;
+
+    /**
+     * The component id of each Cell, indexed by the Cell's index in the maze, or -1
+     * for OBSTACLE Cells
+     */
+    private int[] label;
+
+    /**
+     * The union-find parent of each component id
+     */
+    private int[] parent;
+
+    /**
+     * The next unused component id
+     */
+    private int nextId;
+
+    /**
+     * The index offsets of the neighbors up, down, right and left of a Cell
+     */
+    private int[] offsets;
+
+    /**
+     * The flood that reached each Cell during a split check, valid only where
+     * {@code seen} matches {@code epoch}
+     */
+    private int[] owner;
+    private int[] seen;
+    private int epoch;
+
+    /**
+     * Constructor for the DynamicConnectivity class. The maze is labeled once, and
+     * the labels are then kept up to date by {@code cellTypeChanged}, which the
+     * maze calls when this is attached to it with {@code Maze.getConnectivity}.
+     *
+     * @param maze the maze to track
+     */
+    public DynamicConnectivity(Maze maze) {
+        this.maze = maze;
+        ConnectedComponents components = new ConnectedComponents(maze);
+        int size = maze.getRows() * maze.getCols();
+        label = new int[size];
+        parent = new int[size];
+        for (int idx = 0; idx < size; idx++) {
+            label[idx] = components.getLabel(idx);
+            parent[idx] = idx;
+        }
+        nextId = size;
+        offsets = new int[] { -maze.getCols(), maze.getCols(), 1, -1 };
+    }
+
+    /**
+     * Returns a new component id, compacting the ids first if every one has been
+     * handed out.
+     *
+     * @return a new component id
+     */
+    private int newId() {
+        if (nextId == parent.length)
+            compact();
+        parent[nextId] = nextId;
+        return nextId++;
+    }
+
+    /**
+     * Gives every component the lowest ids again, so the ids of components that
+     * were merged away or split up can be reused. The id array only grows when
+     * more than half of it is still in use afterwards.
+     */
+    private void compact() {
+        int[] newIds = new int[nextId];
+        Arrays.fill(newIds, -1);
+        int live = 0;
+        for (int idx = 0; idx < label.length; idx++) {
+            if (label[idx] == -1)
+                continue;
+            int root = find(label[idx]);
+            if (newIds[root] == -1)
+                newIds[root] = live++;
+            label[idx] = newIds[root];
+        }
+        if (live * 2 > parent.length)
+            parent = new int[parent.length * 2];
+        for (int id = 0; id < live; id++)
+            parent[id] = id;
+        nextId = live;
+    }
+
+    /**
+     * Returns the number of component ids that can be handed out before the ids
+     * are next compacted, which is the memory the ids take.
+     *
+     * @return the capacity of the id array
+     */
+    int getIdCapacity() {
+        return parent.length;
+    }
+
+    /**
+     * Returns the root of the given component id, halving the path to it.
+     *
+     * @param id the component id
+     * @return the root id
+     */
+    private int find(int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    /**
+     * Returns the component of the Cell with the given index.
+     *
+     * @param idx the index of the Cell
+     * @return the id of its component, or -1 if the Cell is an OBSTACLE
+     */
+    public int getComponent(int idx) {
+        return label[idx] == -1 ? -1 : find(label[idx]);
+    }
+
+    /**
+     * Returns the component of the given Cell.
+     *
+     * @param cell the Cell
+     * @return the id of its component, or -1 if the Cell is an OBSTACLE
+     */
+    public int getComponent(Cell cell) {
+        return getComponent(maze.indexOf(cell));
+    }
+
+    /**
+     * Returns whether the two Cells are free and in the same component.
+     *
+     * @param from the Cell to start from
+     * @param to   the Cell to reach
+     * @return true if {@code to} can be reached from {@code from}, false otherwise
+     */
+    @Override
+    public boolean isReachable(Cell from, Cell to) {
+        int component = getComponent(from);
+        return component != -1 && component == getComponent(to);
+    }
+
+    /**
+     * Updates the components after a Cell of the maze has changed type.
+     *
+     * @param cell    the Cell whose type changed
+     * @param oldType the type the Cell had before
+     */
+    @Override
+    public void cellTypeChanged(Cell cell, CellType oldType) {
+        int idx = maze.indexOf(cell);
+        if (cell.getType() == CellType.OBSTACLE && label[idx] != -1) {
+            cellBlocked(idx);
+        } else if (cell.getType() == CellType.FREE && label[idx] == -1) {
+            cellFreed(idx);
+        }
+    }
+
+    /**
+     * Returns the indices of the free neighbors of the Cell with the given index.
+     *
+     * @param idx       the index of the Cell
+     * @param neighbors an array of length 4 to fill
+     * @return the number of free neighbors
+     */
+    private int freeNeighbors(int idx, int[] neighbors) {
+        int cols = maze.getCols();
+        int mask = maze.getNeighborMask(idx / cols, idx % cols);
+        int count = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            if ((mask & (1 << direction)) != 0)
+                neighbors[count++] = idx + offsets[direction];
+        }
+        return count;
+    }
+
+    /**
+     * Joins the freed Cell with the components of its free neighbors.
+     *
+     * @param idx the index of the freed Cell
+     */
+    private void cellFreed(int idx) {
+        int[] neighbors = new int[4];
+        int count = freeNeighbors(idx, neighbors);
+        if (count == 0) {
+            label[idx] = newId();
+            return;
+        }
+        int root = find(label[neighbors[0]]);
+        for (int i = 1; i < count; i++) {
+            int other = find(label[neighbors[i]]);
+            if (other != root) {
+                parent[Math.max(root, other)] = Math.min(root, other);
+                root = Math.min(root, other);
+            }
+        }
+        label[idx] = root;
+    }
+
+    /**
+     * Removes the blocked Cell from its component and gives new ids to any pieces
+     * the component was split into.
+     *
+     * @param idx the index of the blocked Cell
+     */
+    private void cellBlocked(int idx) {
+        label[idx] = -1;
+        int[] neighbors = new int[4];
+        int count = freeNeighbors(idx, neighbors);
+        if (count <= 1)
+            return;
+
+        if (seen == null) {
+            seen = new int[label.length];
+            owner = new int[label.length];
+        }
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            epoch = 1;
+        }
+
+        // Start one flood from each free neighbor; group[i] is the group flood i belongs to
+        Flood[] floods = new Flood[count];
+        int[] group = new int[count];
+        for (int i = 0; i < count; i++) {
+            floods[i] = new Flood(neighbors[i]);
+            group[i] = i;
+            seen[neighbors[i]] = epoch;
+            owner[neighbors[i]] = i;
+        }
+
+        int[] next = new int[4];
+        while (countGroups(group, floods, false) > 1 && countGroups(group, floods, true) > 1) {
+            for (int i = 0; i < count; i++) {
+                if (floods[i].isDone())
+                    continue;
+                int cur = floods[i].next();
+                int found = freeNeighbors(cur, next);
+                for (int j = 0; j < found; j++) {
+                    int neighbor = next[j];
+                    if (seen[neighbor] != epoch) {
+                        seen[neighbor] = epoch;
+                        owner[neighbor] = i;
+                        floods[i].add(neighbor);
+                    } else if (group[owner[neighbor]] != group[i]) {
+                        // two floods met, so they are in the same piece
+                        int from = group[owner[neighbor]];
+                        for (int k = 0; k < count; k++) {
+                            if (group[k] == from)
+                                group[k] = group[i];
+                        }
+                    }
+                }
+            }
+        }
+        if (countGroups(group, floods, true) == 1)
+            return; // every flood met, so the component did not split
+
+        // Every group that stopped growing is a complete piece. If all of them stopped,
+        // the largest one keeps the old id.
+        int keep = -1;
+        if (countGroups(group, floods, false) == 0) {
+            int largest = -1;
+            for (int i = 0; i < count; i++) {
+                int size = groupSize(group, floods, group[i]);
+                if (size > largest) {
+                    largest = size;
+                    keep = group[i];
+                }
+            }
+        }
+        for (int g = 0; g < count; g++) {
+            if (g == keep || !isGroupDone(group, floods, g) || !hasMember(group, g))
+                continue;
+            int id = newId();
+            for (int i = 0; i < count; i++) {
+                if (group[i] == g)
+                    floods[i].relabel(id);
+            }
+        }
+    }
+
+    /**
+     * Returns whether any flood belongs to the given group.
+     */
+    private static boolean hasMember(int[] group, int g) {
+        for (int member : group) {
+            if (member == g)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether every flood of the given group has stopped growing.
+     */
+    private static boolean isGroupDone(int[] group, Flood[] floods, int g) {
+        for (int i = 0; i < group.length; i++) {
+            if (group[i] == g && !floods[i].isDone())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of Cells reached by the floods of the given group.
+     */
+    private static int groupSize(int[] group, Flood[] floods, int g) {
+        int size = 0;
+        for (int i = 0; i < group.length; i++) {
+            if (group[i] == g)
+                size += floods[i].size();
+        }
+        return size;
+    }
+
+    /**
+     * Counts the distinct groups of floods, or only those still growing.
+     *
+     * @param group   the group of each flood
+     * @param floods  the floods
+     * @param all     whether to count groups that have stopped growing as well
+     * @return the number of groups
+     */
+    private static int countGroups(int[] group, Flood[] floods, boolean all) {
+        int count = 0;
+        for (int g = 0; g < group.length; g++) {
+            if (hasMember(group, g) && (all || !isGroupDone(group, floods, g)))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * A breadth-first flood over free Cells. The Cells it has reached are kept in
+     * order, and those after {@code head} have not been expanded yet.
+     */
+    private class Flood {
+        private int[] cells = new int[8];
+        private int head;
+        private int size;
+
+        /**
+         * Constructor for the Flood class.
+         *
+         * @param start the index of the Cell to flood from
+         */
+        public Flood(int start) {
+            add(start);
+        }
+
+        /**
+         * Adds a newly reached Cell to the flood.
+         *
+         * @param idx the index of the Cell
+         */
+        public void add(int idx) {
+            if (size == cells.length)
+                cells = Arrays.copyOf(cells, size * 2);
+            cells[size++] = idx;
+        }
+
+        /**
+         * Returns the next Cell to expand.
+         *
+         * @return the index of the next Cell to expand
+         */
+        public int next() {
+            return cells[head++];
+        }
+
+        /**
+         * Returns whether every reached Cell has been expanded.
+         *
+         * @return true if the flood has stopped growing, false otherwise
+         */
+        public boolean isDone() {
+            return head == size;
+        }
+
+        /**
+         * Returns the number of Cells reached.
+         *
+         * @return the number of Cells reached
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gives every Cell reached by this flood the given component id.
+         *
+         * @param id the component id
+         */
+        public void relabel(int id) {
+            for (int i = 0; i < size; i++)
+                label[cells[i]] = id;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: The loops over whole rows of packed bits that the maze and its
+ * floods spend most of their time in: turning a row of random numbers into obstacle
+ * bits, growing a layer of a BitParallelFlood across a row, and counting set bits.
+ * This class holds plain scalar versions of them.
+ *
+ * When the JDK's incubating Vector API is available, {@code get} returns a
+ * VectorGridKernels instead, which runs the same loops on SIMD registers and always
+ * gives the same results. It is found by reflection, so this class compiles and runs
+ * without the incubator module, and VectorGridKernels is only compiled and loaded
+ * when {@code --add-modules jdk.incubator.vector} is given. Setting the system
+ * property {@code maze.kernels} to {@code scalar} always selects the scalar loops.
+ */
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class GridKernels {
+
+    /**
+     * The kernels used by the maze and its floods
+     */
+    private static final GridKernels INSTANCE = load();
+
+    /**
+     * Returns the fastest kernels available, which are the vector kernels if the
+     * Vector API can be loaded and the scalar kernels otherwise.
+     *
+     * @return the kernels to use
+     */
+    public static GridKernels get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the vector kernels, falling back to the scalar kernels if they were
+     * not compiled, the incubator module is missing, or they were turned off.
+     *
+     * @return the kernels to use
+     */
+    private static GridKernels load() {
+        if ("scalar".equals(System.getProperty("maze.kernels")))
+            return new GridKernels();
+        try {
+            return (GridKernels) Class.forName("VectorGridKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new GridKernels();
+        }
+    }
+
+    /**
+     * Returns the name of these kernels.
+     *
+     * @return the name of these kernels
+     */
+    public String getName() {
+        return "scalar";
+    }
+
+    /**
+     * Sets the bit of every value below the threshold, where value {@code c} has
+     * bit {@code c} of the words starting at {@code offset}. This is how a row of
+     * random numbers becomes a row of obstacles. Bits of the other values are
+     * left as they are.
+     *
+     * @param values    the values
+     * @param n         the number of values
+     * @param threshold the threshold
+     * @param words     the words to set the bits in
+     * @param offset    the index of the word holding the bit of value 0
+     */
+    public void packBelow(double[] values, int n, double threshold, long[] words, int offset) {
+        for (int c = 0; c < n; c++) {
+            if (values[c] < threshold)
+                words[offset + (c >>> 6)] |= 1L << c;
+        }
+    }
+
+    /**
+     * Grows a layer of a flood across one row of words. The next layer in the row
+     * is every free Cell that has not been reached yet and is beside, above or
+     * below a Cell of the current layer. Its Cells are stored in {@code next} and
+     * added to {@code reached}.
+     *
+     * @param frontier the current layer
+     * @param free     the free Cells
+     * @param reached  the Cells reached so far
+     * @param next     where the row of the next layer is stored
+     * @param base     the index of the first word of the row
+     * @param words    the number of words in each row
+     * @param above    whether there is a row above this one
+     * @param below    whether there is a row below this one
+     * @return the OR of the words of the next layer in the row, which is zero if
+     *         the row has none
+     */
+    public long expandRow(long[] frontier, long[] free, long[] reached, long[] next, int base, int words,
+            boolean above, boolean below) {
+        return expandWords(frontier, free, reached, next, base, words, 0, words, above, below);
+    }
+
+    /**
+     * Grows a layer of a flood across the given words of one row, as in
+     * {@code expandRow}.
+     *
+     * @param frontier the current layer
+     * @param free     the free Cells
+     * @param reached  the Cells reached so far
+     * @param next     where the row of the next layer is stored
+     * @param base     the index of the first word of the row
+     * @param words    the number of words in each row
+     * @param from     the first word of the row to grow across
+     * @param to       the word after the last word to grow across
+     * @param above    whether there is a row above this one
+     * @param below    whether there is a row below this one
+     * @return the OR of the words of the next layer that were stored
+     */
+    protected long expandWords(long[] frontier, long[] free, long[] reached, long[] next, int base, int words,
+            int from, int to, boolean above, boolean below) {
+        long any = 0;
+        for (int w = from; w < to; w++) {
+            int i = base + w;
+            long f = frontier[i];
+            long spread = f << 1 | f >>> 1;
+            if (w > 0)
+                spread |= frontier[i - 1] >>> 63;
+            if (w < words - 1)
+                spread |= frontier[i + 1] << 63;
+            if (above)
+                spread |= frontier[i - words];
+            if (below)
+                spread |= frontier[i + words];
+            long found = spread & free[i] & ~reached[i];
+            next[i] = found;
+            reached[i] |= found;
+            any |= found;
+        }
+        return any;
+    }
+
+    /**
+     * Returns the number of bits set in the given range of words.
+     *
+     * @param words the words
+     * @param from  the index of the first word
+     * @param to    the index after the last word
+     * @return the number of bits set
+     */
+    public int bitCount(long[] words, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++)
+            count += Long.bitCount(words[i]);
+        return count;
+    }
+
+    /**
+     * Runs each kernel once over every row of the given data.
+     *
+     * @param kernel   the kernels to run
+     * @param values   the row of values to pack into every row of bits
+     * @param bits     the rows of bits
+     * @param frontier the layer to grow
+     * @param free     the free Cells
+     * @param reached  the Cells reached, which is cleared first
+     * @param next     where the next layer is stored
+     * @param cols     the number of columns
+     * @param rows     the number of rows
+     * @param nanos    where the time each kernel took is added
+     * @return a checksum of the results, so none of the work can be skipped
+     */
+    private static long timeKernels(GridKernels kernel, double[] values, long[] bits, long[] frontier, long[] free,
+            long[] reached, long[] next, int cols, int rows, long[] nanos) {
+        int words = (cols + 63) >>> 6;
+        long checksum = 0;
+        long t0 = System.nanoTime();
+        for (int r = 0; r < rows; r++)
+            kernel.packBelow(values, cols, 0.3, bits, r * words);
+        long t1 = System.nanoTime();
+        Arrays.fill(reached, 0);
+        for (int r = 0; r < rows; r++)
+            checksum += kernel.expandRow(frontier, free, reached, next, r * words, words, r > 0, r < rows - 1);
+        long t2 = System.nanoTime();
+        checksum += kernel.bitCount(reached, 0, reached.length);
+        long t3 = System.nanoTime();
+        nanos[0] += t1 - t0;
+        nanos[1] += t2 - t1;
+        nanos[2] += t3 - t2;
+        return checksum + bits[bits.length - 1];
+    }
+
+    /**
+     * Times each kernel of the scalar kernels and of the kernels returned by
+     * {@code get} on the same random rows, and prints the time per word and the
+     * speedup.
+     *
+     * Usage: java --add-modules jdk.incubator.vector GridKernels [cols] [rows] [repeats]
+     */
+    public static void main(String[] args) {
+        int cols = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int words = (cols + 63) >>> 6;
+        SplittableRandom rand = new SplittableRandom(42);
+        double[] values = new double[cols];
+        for (int c = 0; c < cols; c++)
+            values[c] = rand.nextDouble();
+        long[] frontier = new long[rows * words];
+        long[] free = new long[rows * words];
+        for (int i = 0; i < frontier.length; i++) {
+            frontier[i] = rand.nextLong() & rand.nextLong() & rand.nextLong();
+            free[i] = rand.nextLong() | rand.nextLong();
+        }
+
+        GridKernels[] kernels = { new GridKernels(), get() };
+        long[][] nanos = new long[kernels.length][3];
+        for (int k = 0; k < kernels.length; k++) {
+            long[] bits = new long[rows * words];
+            long[] reached = new long[rows * words];
+            long[] next = new long[rows * words];
+            long checksum = 0;
+            // the first half of the runs only warm up
+            for (int rep = 0; rep < 2 * repeats; rep++) {
+                if (rep == repeats)
+                    Arrays.fill(nanos[k], 0);
+                checksum += timeKernels(kernels[k], values, bits, frontier, free, reached, next, cols, rows, nanos[k]);
+            }
+            System.out.println(kernels[k].getName() + " checksum " + checksum);
+        }
+
+        String[] names = { "packBelow", "expandRow", "bitCount" };
+        double perWord = (double) repeats * rows * words;
+        System.out.printf("%-10s %10s %10s %8s%n", "Kernel", "scalar", kernels[1].getName(), "Speedup");
+        for (int i = 0; i < names.length; i++)
+            System.out.printf("%-10s %7.3f ns %7.3f ns %7.2fx%n", names[i], nanos[0][i] / perWord, nanos[1][i] / perWord,
+                    (double) nanos[0][i] / nanos[1][i]);
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.Arrays;
+import java.util.Random;
+
+public abstract class GridKernelsTests {
+
+	/**
+	 * Returns random words with about the given share of their bits set.
+	 *
+	 * @param rand    the random numbers to use
+	 * @param length  the number of words
+	 * @param density 0 for a quarter of the bits set, 1 for half, 2 for three quarters
+	 * @return the words
+	 */
+	static long[] randomWords( Random rand, int length, int density ){
+		long[] words = new long[length];
+		for ( int i = 0 ; i < length ; i ++ ){
+			long word = rand.nextLong();
+			if ( density == 0 ){
+				word &= rand.nextLong();
+			} else if ( density == 2 ){
+				word |= rand.nextLong();
+			}
+			words[i] = word;
+		}
+		return words;
+	}
+
+	public static double gridKernelsTests(){
+		Random rand = new Random();
+		int restarts = 2000 ;
+		GridKernels scalar = new GridKernels();
+		// the vector kernels when they were compiled and the incubator module is loaded,
+		// the scalar kernels otherwise
+		GridKernels kernels = GridKernels.get();
+
+		int score = 0 ;
+
+		/**
+		 * Pack rows of random values of every length, most of them not a multiple of
+		 * the vector length, into words that already hold bits
+		 */
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts ; r ++ ){
+				int n = 1 + rand.nextInt( 700 );
+				double[] values = new double[n];
+				for ( int c = 0 ; c < n ; c ++ ){
+					values[c] = rand.nextDouble();
+				}
+				double threshold = rand.nextDouble();
+				int offset = rand.nextInt( 3 );
+				long[] expected = randomWords( rand, offset + ( ( n + 63 ) >>> 6 ) + rand.nextInt( 3 ), rand.nextInt( 3 ) );
+				long[] actual = expected.clone();
+				scalar.packBelow( values, n, threshold, expected, offset );
+				kernels.packBelow( values, n, threshold, actual, offset );
+				testPassed &= Arrays.equals( expected, actual );
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 1" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Grow random layers across rows of every width, at the top, middle and bottom
+		 * of the bitsets
+		 */
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts ; r ++ ){
+				int words = 1 + rand.nextInt( 20 );
+				int rows = 1 + rand.nextInt( 4 );
+				int row = rand.nextInt( rows );
+				long[] frontier = randomWords( rand, rows * words, rand.nextInt( 3 ) );
+				long[] free = randomWords( rand, rows * words, rand.nextInt( 3 ) );
+				long[] expectedReached = randomWords( rand, rows * words, 0 );
+				long[] actualReached = expectedReached.clone();
+				long[] expectedNext = randomWords( rand, rows * words, 1 );
+				long[] actualNext = expectedNext.clone();
+				long expected = scalar.expandRow( frontier, free, expectedReached, expectedNext, row * words, words, row > 0, row < rows - 1 );
+				long actual = kernels.expandRow( frontier, free, actualReached, actualNext, row * words, words, row > 0, row < rows - 1 );
+				testPassed &= expected == actual && Arrays.equals( expectedReached, actualReached ) && Arrays.equals( expectedNext, actualNext );
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 2" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Count the bits of random ranges of words
+		 */
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts ; r ++ ){
+				long[] words = randomWords( rand, 1 + rand.nextInt( 100 ), rand.nextInt( 3 ) );
+				int from = rand.nextInt( words.length + 1 );
+				int to = from + rand.nextInt( words.length - from + 1 );
+				testPassed &= scalar.bitCount( words, from, to ) == kernels.bitCount( words, from, to );
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 3" );
+				score ++;
+			}
+		}
+
+		return score ;
+	}
+
+	public static void main( String[] args ) {
+
+		System.out.println( GridKernels.get().getName() + " kernels" );
+		System.out.println( gridKernelsTests() + "/3" );
+
+	}
+
+}
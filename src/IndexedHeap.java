@@ -0,0 +1,234 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A heap that implements the PriorityQueue interface and remembers
+ * where each item is stored. Every item is mapped to a non-negative integer key (for
+ * example the index of a Cell in its maze), so contains runs in O(1) and
+ * updatePriority and remove run in O(log n) without scanning the heap.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ToIntFunction;
+
+public class IndexedHeap<T> implements PriorityQueue<T>{
+    private Comparator<T> comparator;
+    private ToIntFunction<T> indexer;
+    private ArrayList<T> heap;
+
+    // position[key] is the index of the item with that key in the heap, or 0 if it is absent
+    private int[] position;
+
+    /**
+     * Constructor for the IndexedHeap class.
+     *
+     * @param comparator the comparator to use for ordering the elements in the heap
+     * @param indexer    maps each item to a distinct non-negative key
+     * @param maxHeap    true if the heap should be a max heap, false if it should be a min heap
+     */
+    public IndexedHeap(Comparator<T> comparator, ToIntFunction<T> indexer, boolean maxHeap){
+        if(maxHeap){
+            this.comparator = comparator.reversed();
+        }
+        else{
+            this.comparator = comparator;
+        }
+        this.indexer = indexer;
+        this.heap = new ArrayList<>();
+        this.heap.add(null); // index 0 is unused
+        this.position = new int[16];
+    }
+
+    /**
+     * Constructor for the IndexedHeap class.
+     *
+     * @param comparator the comparator to use for ordering the elements in the heap
+     * @param indexer    maps each item to a distinct non-negative key
+     */
+    public IndexedHeap(Comparator<T> comparator, ToIntFunction<T> indexer){
+        this(comparator, indexer, false);
+    }
+
+    /**
+     * Places the given item at the given index in the heap and records its position.
+     *
+     * @param idx  the index in the heap
+     * @param item the item to place
+     */
+    private void place(int idx, T item){
+        heap.set(idx, item);
+        position[indexer.applyAsInt(item)] = idx;
+    }
+
+    /**
+     * Returns the position of the given item in the heap.
+     *
+     * @param item the item to look up
+     * @return the index of the item in the heap, or 0 if it is not in the heap
+     */
+    private int positionOf(T item){
+        int key = indexer.applyAsInt(item);
+        return key < position.length ? position[key] : 0;
+    }
+
+    /**
+     * Bubbles up the element at the given index in the heap to maintain the heap property.
+     *
+     * @param idx the index of the element to bubble up
+     */
+    private void bubbleUp(int idx){
+        T item = heap.get(idx);
+        while(idx > 1){
+            int parentIdx = idx/2;
+            T parent = heap.get(parentIdx);
+            if(comparator.compare(item, parent) >= 0){
+                break;
+            }
+            place(idx, parent);
+            idx = parentIdx;
+        }
+        place(idx, item);
+    }
+
+    /**
+     * Bubbles down the element at the given index in the heap to maintain the heap property.
+     *
+     * @param idx the index of the element to bubble down
+     */
+    private void bubbleDown(int idx){
+        T item = heap.get(idx);
+        int n = heap.size();
+        while(2*idx < n){
+            int swapIdx = 2*idx;
+            // pick the right child if it exists and has greater priority than the left child
+            if(swapIdx + 1 < n && comparator.compare(heap.get(swapIdx), heap.get(swapIdx + 1)) > 0){
+                swapIdx++;
+            }
+            if(comparator.compare(item, heap.get(swapIdx)) <= 0){
+                break;
+            }
+            place(idx, heap.get(swapIdx));
+            idx = swapIdx;
+        }
+        place(idx, item);
+    }
+
+    /**
+     * Returns the number of items in the heap.
+     *
+     * @return the number of items in the heap
+     */
+    public int size() {
+        return heap.size() - 1;
+    }
+
+    /**
+     * Returns whether the given item is in the heap.
+     *
+     * @param item the item to look for
+     * @return true if the item is in the heap, false otherwise
+     */
+    public boolean contains(T item){
+        return positionOf(item) != 0;
+    }
+
+    /**
+     * Returns the item of greatest priority in the heap (the root).
+     *
+     * @return the item of greatest priority in the heap
+     */
+    public T peek(){
+        if(heap.size() == 1){
+            return null;
+        }
+        return heap.get(1);
+    }
+
+    /**
+     * Adds the given item to the heap and maintains the heap property. If the item
+     * is already in the heap, its priority is updated instead.
+     *
+     * @param item the item to add to the heap
+     */
+    public void offer(T item) {
+        if(contains(item)){
+            updatePriority(item);
+            return;
+        }
+        int key = indexer.applyAsInt(item);
+        if(key >= position.length){
+            position = Arrays.copyOf(position, Math.max(key + 1, 2*position.length));
+        }
+        heap.add(item);
+        bubbleUp(heap.size()-1);
+    }
+
+    /**
+     * Removes and returns the item of greatest priority in the heap (the root) and maintains the heap property.
+     *
+     * @return the item of greatest priority in the heap
+     */
+    public T poll(){
+        if(heap.size() == 1){
+            return null;
+        }
+        T root = heap.get(1);
+        removeAt(1);
+        return root;
+    }
+
+    /**
+     * Removes the given item from the heap if it is present.
+     *
+     * @param item the item to remove
+     * @return true if the item was in the heap, false otherwise
+     */
+    public boolean remove(T item){
+        int idx = positionOf(item);
+        if(idx == 0){
+            return false;
+        }
+        removeAt(idx);
+        return true;
+    }
+
+    /**
+     * Removes the item at the given index in the heap and maintains the heap property.
+     *
+     * @param idx the index of the item to remove
+     */
+    private void removeAt(int idx){
+        position[indexer.applyAsInt(heap.get(idx))] = 0;
+        T last = heap.remove(heap.size()-1);
+        if(idx < heap.size()){
+            place(idx, last);
+            bubbleUp(idx);
+            bubbleDown(position[indexer.applyAsInt(last)]);
+        }
+    }
+
+    /**
+     * Updates the priority of the given item in the heap and maintains the heap property.
+     *
+     * @param item the item whose priority has been updated
+     */
+    public void updatePriority(T item){
+        int idx = positionOf(item);
+        if(idx == 0){
+            return;
+        }
+        bubbleUp(idx);
+        bubbleDown(position[indexer.applyAsInt(item)]);
+    }
+
+    /**
+     * Removes every item from the heap.
+     */
+    public void clear(){
+        for(int i = 1; i < heap.size(); i++){
+            position[indexer.applyAsInt(heap.get(i))] = 0;
+        }
+        heap.clear();
+        heap.add(null);
+    }
+}
@@ -0,0 +1,189 @@
+import java.util.Random;
+
+public class IndexedHeapTests {
+
+    /**
+     * Polls every item out of the queue and checks that they come out in order of
+     * their priorities, and that there are as many as expected.
+     *
+     * @param pq       the queue to empty
+     * @param priority the priority of each item, where lower comes first
+     * @param expected the number of items that should be in the queue
+     * @return true if the items came out in order and none were missing
+     */
+    static boolean pollsInOrder(PriorityQueue<Integer> pq, int[] priority, int expected) {
+        int count = 0;
+        int last = Integer.MIN_VALUE;
+        while (pq.size() > 0) {
+            int item = pq.poll();
+            if (priority[item] < last) {
+                return false;
+            }
+            last = priority[item];
+            count++;
+        }
+        return count == expected && pq.poll() == null;
+    }
+
+    public static double indexedHeapTests() {
+
+        double testScore = 0. ;
+        Random rand = new Random();
+        int n = 1000;
+
+        /**
+         * Offer items with random priorities and poll them out in order
+         */
+        {
+            int[] priority = new int[n];
+            IndexedHeap<Integer> pq = new IndexedHeap<>((Integer a, Integer b) -> priority[a] - priority[b], (Integer a) -> a);
+            for (int i = 0; i < n; i++) {
+                priority[i] = rand.nextInt(300);
+                pq.offer(i);
+            }
+
+            if (pq.size() == n && pollsInOrder(pq, priority, n)) {
+                System.out.println( "Test 1 passed" );
+                testScore ++;
+            }
+        }
+
+        /**
+         * Lower the priorities of some items (decrease-key) and poll them out in order
+         */
+        {
+            int[] priority = new int[n];
+            IndexedHeap<Integer> pq = new IndexedHeap<>((Integer a, Integer b) -> priority[a] - priority[b], (Integer a) -> a);
+            for (int i = 0; i < n; i++) {
+                priority[i] = 300 + rand.nextInt(300);
+                pq.offer(i);
+            }
+            for (int i = 0; i < n; i += 3) {
+                priority[i] = rand.nextInt(300);
+                pq.updatePriority(i);
+            }
+
+            if (pq.size() == n && pollsInOrder(pq, priority, n)) {
+                System.out.println( "Test 2 passed" );
+                testScore ++;
+            }
+        }
+
+        /**
+         * Raise the priorities of some items while polling others out
+         */
+        {
+            int[] priority = new int[n];
+            IndexedHeap<Integer> pq = new IndexedHeap<>((Integer a, Integer b) -> priority[a] - priority[b], (Integer a) -> a);
+            for (int i = 0; i < n; i++) {
+                priority[i] = rand.nextInt(300);
+                pq.offer(i);
+            }
+            boolean testPassed = true;
+            int polled = 0;
+            for (int i = 0; i < n; i += 2) {
+                if (pq.contains(i)) {
+                    priority[i] += rand.nextInt(300);
+                    pq.updatePriority(i);
+                }
+                int head = pq.peek();
+                if (pq.poll() != head) {
+                    testPassed = false;
+                }
+                polled++;
+            }
+
+            if (testPassed && pollsInOrder(pq, priority, n - polled)) {
+                System.out.println( "Test 3 passed" );
+                testScore ++;
+            }
+        }
+
+        /**
+         * Remove some items and poll out exactly the rest, in order
+         */
+        {
+            int[] priority = new int[n];
+            IndexedHeap<Integer> pq = new IndexedHeap<>((Integer a, Integer b) -> priority[a] - priority[b], (Integer a) -> a);
+            for (int i = 0; i < n; i++) {
+                priority[i] = rand.nextInt(300);
+                pq.offer(i);
+            }
+            boolean testPassed = true;
+            int removed = 0;
+            for (int i = 0; i < n; i++) {
+                if (rand.nextBoolean()) {
+                    testPassed &= pq.remove(i) && !pq.contains(i) && !pq.remove(i);
+                    removed++;
+                }
+            }
+
+            if (testPassed && pq.size() == n - removed && pollsInOrder(pq, priority, n - removed)) {
+                System.out.println( "Test 4 passed" );
+                testScore ++;
+            }
+        }
+
+        /**
+         * Offering an item that is already in the heap updates it instead of adding it again
+         */
+        {
+            int[] priority = new int[n];
+            IndexedHeap<Integer> pq = new IndexedHeap<>((Integer a, Integer b) -> priority[a] - priority[b], (Integer a) -> a);
+            for (int i = 0; i < n; i++) {
+                priority[i] = 100 + rand.nextInt(300);
+                pq.offer(i);
+            }
+            int item = rand.nextInt(n);
+            priority[item] = 0;
+            pq.offer(item);
+
+            if (pq.size() == n && pq.peek() == item && pollsInOrder(pq, priority, n)) {
+                System.out.println( "Test 5 passed" );
+                testScore ++;
+            }
+        }
+
+        /**
+         * Mixing offers, updates and removes in a max heap
+         */
+        {
+            int[] priority = new int[n];
+            int[] negated = new int[n];
+            IndexedHeap<Integer> pq = new IndexedHeap<>((Integer a, Integer b) -> priority[a] - priority[b], (Integer a) -> a, true);
+            boolean[] in = new boolean[n];
+            int size = 0;
+            for (int step = 0; step < 10 * n; step++) {
+                int item = rand.nextInt(n);
+                if (in[item] && rand.nextInt(3) == 0) {
+                    pq.remove(item);
+                    in[item] = false;
+                    size--;
+                } else {
+                    priority[item] = rand.nextInt(1000);
+                    if (in[item]) {
+                        pq.updatePriority(item);
+                    } else {
+                        pq.offer(item);
+                        in[item] = true;
+                        size++;
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                negated[i] = -priority[i];
+            }
+
+            if (pq.size() == size && pollsInOrder(pq, negated, size)) {
+                System.out.println( "Test 6 passed" );
+                testScore ++;
+            }
+        }
+
+        return testScore;
+    }
+
+    public static void main(String[] args) {
+        System.out.println( indexedHeapTests() + "/6.0" );
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A growable ring buffer of ints that implements both the Queue
+ * and Stack interfaces, like LinkedList does. It is meant for holding Cell indices, so
+ * adding and removing items allocates nothing once the buffer is large enough.
+ */
+
+import java.util.Arrays;
+
+public class IntDeque implements Stack<Integer>, Queue<Integer> {
+
+    private int[] items;
+    private int head;
+    private int size;
+
+    /**
+     * Constructor for the IntDeque class
+     */
+    public IntDeque(){
+        this(16);
+    }
+
+    /**
+     * Constructor for the IntDeque class with the given initial capacity
+     * @param capacity the number of items the deque can hold before growing
+     */
+    public IntDeque(int capacity){
+        items = new int[Math.max(capacity, 1)];
+        clear();
+    }
+
+    /**
+     * Returns the number of items in the deque
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns true if the deque is empty, false otherwise
+     * @return true if the deque is empty, false otherwise
+     */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Clears the deque
+     */
+    public void clear(){
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Doubles the capacity of the deque, moving the items to the start of the new buffer
+     */
+    private void grow(){
+        int[] bigger = new int[items.length * 2];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, bigger, 0, firstPart);
+        System.arraycopy(items, 0, bigger, firstPart, size - firstPart);
+        items = bigger;
+        head = 0;
+    }
+
+    /**
+     * Adds the given item to the end of the deque
+     * @param item the item to be added
+     */
+    public void offerInt(int item){
+        if (size == items.length){
+            grow();
+        }
+        int tail = head + size;
+        items[tail < items.length ? tail : tail - items.length] = item;
+        size++;
+    }
+
+    /**
+     * Adds the given item to the front of the deque
+     * @param item the item to be added
+     */
+    public void pushInt(int item){
+        if (size == items.length){
+            grow();
+        }
+        head = (head == 0 ? items.length : head) - 1;
+        items[head] = item;
+        size++;
+    }
+
+    /**
+     * Returns the item at the front of the deque without removing it
+     * @return the item at the front of the deque
+     * @throws IllegalStateException if the deque is empty
+     */
+    public int peekInt(){
+        if (size == 0){
+            throw new IllegalStateException("Deque is empty");
+        }
+        return items[head];
+    }
+
+    /**
+     * Removes and returns the item at the front of the deque
+     * @return the item at the front of the deque
+     * @throws IllegalStateException if the deque is empty
+     */
+    public int pollInt(){
+        int item = peekInt();
+        head = (head + 1 == items.length) ? 0 : head + 1;
+        size--;
+        return item;
+    }
+
+    /**
+     * Adds the given item to the end of the deque
+     * @param item the item to be added
+     */
+    public void offer(Integer item){
+        offerInt(item);
+    }
+
+    /**
+     * Adds the given item to the top of the stack
+     * @param item the item to be added
+     */
+    public void push(Integer item){
+        pushInt(item);
+    }
+
+    /**
+     * Returns the item at the front of the deque
+     * @return the item at the front of the deque, or null if it is empty
+     */
+    public Integer peek(){
+        return size == 0 ? null : peekInt();
+    }
+
+    /**
+     * Returns and removes the item at the front of the deque
+     * @return the item at the front of the deque, or null if it is empty
+     */
+    public Integer poll(){
+        return size == 0 ? null : pollInt();
+    }
+
+    /**
+     * Returns and removes the item at the top of the stack
+     * @return the item at the top of the stack, or null if it is empty
+     */
+    public Integer pop(){
+        return poll();
+    }
+
+    /**
+     * Returns a string representation of the deque
+     *
+     * @return a string representation of the deque
+     */
+    public String toString(){
+        int[] ordered = new int[size];
+        for (int i = 0; i < size; i++){
+            ordered[i] = items[(head + i) % items.length];
+        }
+        return Arrays.toString(ordered);
+    }
+}
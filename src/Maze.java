@@ -6,14 +6,18 @@
  */
 
 import java.awt.Graphics;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 public class Maze implements Iterable<Cell> {
 
     /**
      * An iterator which iterates through all the Cells in the Maze row by row and
-     * column by column.
+     * column by column. For a packed Maze this creates a view of every Cell, so it
+     * should be avoided on very large mazes.
      */
     public Iterator<Cell> iterator() {
         return new Iterator<Cell>() {
@@ -35,6 +39,18 @@ public class Maze implements Iterable<Cell> {
         };
     }
 
+    /**
+     * The row and column offsets of the four directions a Cell can be left by, in
+     * the order up, down, right, left.
+     */
+    private static final int[] ROW_STEPS = { -1, 1, 0, 0 };
+    private static final int[] COL_STEPS = { 0, 0, 1, -1 };
+
+    /**
+     * Mazes with at least this many Cells are generated on multiple threads.
+     */
+    private static final long PARALLEL_THRESHOLD = 1 << 16;
+
     /**
      * The number of rows and columns in this Maze.
      */
@@ -53,10 +69,45 @@ public class Maze implements Iterable<Cell> {
     private Cell start, target;
 
     /**
-     * The 2-D array of Cells making up this Maze.
+     * The 2-D array of Cells making up this Maze. This is null if the Maze is
+     * packed.
      */
     private Cell[][] landscape;
 
+    /**
+     * The obstacles of a packed Maze, one bit per Cell. Each row starts on a new
+     * word so that rows never share a word.
+     */
+    private long[] obstacles;
+
+    /**
+     * The number of words used to store each row of a packed Maze.
+     */
+    private int rowWords;
+
+    /**
+     * The SearchState that holds the search tree of the Cells of this Maze. It is
+     * created the first time it is needed.
+     */
+    private SearchState searchState;
+
+    /**
+     * The listeners told whenever the type of a Cell in this Maze changes.
+     */
+    private ArrayList<CellTypeListener> listeners = new ArrayList<CellTypeListener>();
+
+    /**
+     * The connectivity structure attached to this Maze, or null if none has been
+     * requested.
+     */
+    private DynamicConnectivity connectivity;
+
+    /**
+     * The number of times the layout of this Maze has changed, so structures
+     * built from it can tell when they are out of date.
+     */
+    private int modCount;
+
     /**
      * Constructs a Maze with the given number of rows and columns. Each Cell
      * independently has probability {@code density} of being an OBSTACLE.
@@ -66,20 +117,77 @@ public class Maze implements Iterable<Cell> {
      * @param density the probability of any individual Cell being an OBSTACLE.
      */
     public Maze(int rows, int columns, double density) {
+        this(rows, columns, density, false);
+    }
+
+    /**
+     * Constructs a Maze with the given number of rows and columns. Each Cell
+     * independently has probability {@code density} of being an OBSTACLE.
+     * 
+     * If {@code packed} is true, the obstacles are stored one bit per Cell and
+     * Cells are only created when they are requested. This uses far less memory
+     * for large mazes.
+     * 
+     * Cells are found by their index {@code row * columns + col}, so a Maze can
+     * have at most Integer.MAX_VALUE Cells.
+     * 
+     * @param rows    the number of rows.
+     * @param columns the number of columns.
+     * @param density the probability of any individual Cell being an OBSTACLE.
+     * @param packed  whether to store the obstacles in a packed bitset.
+     */
+    public Maze(int rows, int columns, double density, boolean packed) {
+        this(rows, columns, density, new Random().nextLong(), packed);
+    }
+
+    /**
+     * Constructs a Maze with the given number of rows and columns whose
+     * obstacles, start and target are determined by {@code seed}. The same seed
+     * always gives the same Maze.
+     * 
+     * @param rows    the number of rows.
+     * @param columns the number of columns.
+     * @param density the probability of any individual Cell being an OBSTACLE.
+     * @param seed    the seed for the random number generator.
+     */
+    public Maze(int rows, int columns, double density, long seed) {
+        this(rows, columns, density, seed, false);
+    }
+
+    /**
+     * Constructs a Maze with the given number of rows and columns whose
+     * obstacles, start and target are determined by {@code seed}, optionally
+     * storing the obstacles in a packed bitset.
+     * 
+     * @param rows    the number of rows.
+     * @param columns the number of columns.
+     * @param density the probability of any individual Cell being an OBSTACLE.
+     * @param seed    the seed for the random number generator.
+     * @param packed  whether to store the obstacles in a packed bitset.
+     */
+    public Maze(int rows, int columns, double density, long seed, boolean packed) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("A Maze must have between 1 and " + Integer.MAX_VALUE
+                    + " Cells: " + rows + " x " + columns);
         this.rows = rows;
         this.cols = columns;
         this.density = density;
-        landscape = new Cell[rows][columns];
-        reinitialize();
+        if (packed) {
+            rowWords = (columns + 63) >>> 6;
+            obstacles = new long[rows * rowWords];
+        } else {
+            landscape = new Cell[rows][columns];
+        }
+        SplittableRandom rand = new SplittableRandom(seed);
+        reinitialize(rand.nextLong());
 
-        Random rand = new Random();
-        start = landscape[rand.nextInt(rows)][rand.nextInt(columns)];
+        start = get(rand.nextInt(rows), rand.nextInt(columns));
         while (start.getType() == CellType.OBSTACLE) {
-            start = landscape[rand.nextInt(rows)][rand.nextInt(columns)];
+            start = get(rand.nextInt(rows), rand.nextInt(columns));
         }
-        target = landscape[rand.nextInt(rows)][rand.nextInt(columns)];
-        while (target.getType() == CellType.OBSTACLE || start == target) {
-            target = landscape[rand.nextInt(rows)][rand.nextInt(columns)];
+        target = get(rand.nextInt(rows), rand.nextInt(columns));
+        while (target.getType() == CellType.OBSTACLE || start.equals(target)) {
+            target = get(rand.nextInt(rows), rand.nextInt(columns));
         }
     }
 
@@ -98,26 +206,93 @@ public class Maze implements Iterable<Cell> {
         this.landscape = grid;
         this.start = start;
         this.target = target;
+        for (Cell[] cells : grid)
+            for (Cell cell : cells)
+                cell.setMaze(this);
     }
 
     /**
      * Initializes every Cell in the Maze.
      */
     public void reinitialize() {
-        Random rand = new Random();
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                landscape[r][c] = new Cell(r, c, rand.nextDouble() < density ? CellType.OBSTACLE : CellType.FREE);
-            }
+        reinitialize(new Random().nextLong());
+    }
+
+    /**
+     * Initializes every Cell in the Maze from the given seed. Each row gets its
+     * own generator seeded from {@code seed}, so large mazes are filled a stripe
+     * of rows per thread and the result does not depend on how many threads
+     * were used.
+     * 
+     * @param seed the seed for the random number generator.
+     */
+    public void reinitialize(long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        long[] rowSeeds = new long[rows];
+        for (int r = 0; r < rows; r++)
+            rowSeeds[r] = rand.nextLong();
+        if (connectivity != null) {
+            removeCellTypeListener(connectivity);
+            connectivity = null;
+        }
+
+        IntStream stripes = IntStream.range(0, rows);
+        if ((long) rows * cols >= PARALLEL_THRESHOLD)
+            stripes = stripes.parallel();
+        stripes.forEach(r -> initializeRow(r, new SplittableRandom(rowSeeds[r])));
+        modCount++;
+    }
+
+    /**
+     * Initializes every Cell in the given row.
+     * 
+     * @param r    the row.
+     * @param rand the random number generator for this row.
+     */
+    private void initializeRow(int r, SplittableRandom rand) {
+        if (isPacked()) {
+            for (int w = 0; w < rowWords; w++)
+                obstacles[r * rowWords + w] = 0;
+            // draw the whole row first, so the comparisons can be packed into bits a vector at a time
+            double[] values = new double[cols];
+            for (int c = 0; c < cols; c++)
+                values[c] = rand.nextDouble();
+            GridKernels.get().packBelow(values, cols, density, obstacles, r * rowWords);
+            return;
+        }
+        for (int c = 0; c < cols; c++) {
+            landscape[r][c] = new Cell(r, c, rand.nextDouble() < density ? CellType.OBSTACLE : CellType.FREE, this);
         }
     }
 
     /**
-     * Calls {@code reset} on every Cell in this Maze.
+     * Resets every Cell in this Maze back to unvisited by clearing its
+     * SearchState. This takes constant time, as the SearchState only starts a
+     * new epoch.
      */
     public void reset() {
-        for (Cell cell : this)
-            cell.reset();
+        if (searchState != null)
+            searchState.clear();
+    }
+
+    /**
+     * Returns the SearchState holding the search tree of the Cells of this Maze.
+     * 
+     * @return the SearchState of this Maze.
+     */
+    public SearchState getSearchState() {
+        if (searchState == null)
+            searchState = new SearchState(rows * cols);
+        return searchState;
+    }
+
+    /**
+     * Returns whether this Maze stores its obstacles in a packed bitset.
+     * 
+     * @return true if this Maze is packed, false otherwise.
+     */
+    public boolean isPacked() {
+        return obstacles != null;
     }
 
     /**
@@ -159,12 +334,146 @@ public class Maze implements Iterable<Cell> {
     /**
      * Returns the Cell at the specified row and column in the Maze.
      * 
+     * For a packed Maze this is a new view of the location each time, which reads
+     * its type from the packed bits and writes changes back to them. Views of the
+     * same location are equal but not the same object, so they should be compared
+     * with {@code equals} or by index.
+     * 
      * @param row the row
      * @param col the column
      * @return the Cell at the specified row and column in the Maze.
      */
     public Cell get(int row, int col) {
-        return landscape[row][col];
+        if (!isPacked())
+            return landscape[row][col];
+        return new Cell(row, col, null, this);
+    }
+
+    /**
+     * Returns the Cell with the given index, where the index of a Cell is
+     * {@code row * getCols() + col}.
+     * 
+     * @param index the index of the Cell.
+     * @return the Cell with the given index.
+     */
+    public Cell get(int index) {
+        return get(index / cols, index % cols);
+    }
+
+    /**
+     * Returns the index of the given Cell in this Maze, which is
+     * {@code row * getCols() + col}.
+     * 
+     * @param c the Cell.
+     * @return the index of the Cell.
+     */
+    public int indexOf(Cell c) {
+        return c.getRow() * cols + c.getCol();
+    }
+
+    /**
+     * Returns whether the location at the specified row and column is an
+     * OBSTACLE. Unlike {@code get}, this never creates a Cell.
+     * 
+     * @param row the row
+     * @param col the column
+     * @return true if the location is an OBSTACLE, false otherwise.
+     */
+    public boolean isObstacle(int row, int col) {
+        if (isPacked())
+            return (obstacles[row * rowWords + (col >>> 6)] & (1L << col)) != 0;
+        return landscape[row][col].getType() == CellType.OBSTACLE;
+    }
+
+    /**
+     * Returns the non-OBSTACLE Cells of this Maze as a bitset, one bit per Cell.
+     * As in a packed Maze, each row starts on a new word and takes
+     * {@code (getCols() + 63) / 64} words, and the bits past the last column of a
+     * row are clear.
+     *
+     * @return a new array with the bit of every non-OBSTACLE Cell set.
+     */
+    public long[] getFreeWords() {
+        int words = (cols + 63) >>> 6;
+        long[] free = new long[rows * words];
+        long lastWord = -1L >>> (-cols & 63);
+        for (int r = 0; r < rows; r++) {
+            if (isPacked()) {
+                for (int w = 0; w < words; w++)
+                    free[r * words + w] = ~obstacles[r * rowWords + w];
+                free[r * words + words - 1] &= lastWord;
+                continue;
+            }
+            for (int c = 0; c < cols; c++) {
+                if (landscape[r][c].getType() != CellType.OBSTACLE)
+                    free[r * words + (c >>> 6)] |= 1L << c;
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Called by a Cell of this Maze when its type has been changed.
+     * 
+     * @param cell the Cell whose type changed.
+     */
+    void typeChanged(Cell cell, CellType oldType) {
+        if (isPacked()) {
+            int word = cell.getRow() * rowWords + (cell.getCol() >>> 6);
+            if (oldType == CellType.FREE)
+                obstacles[word] |= 1L << cell.getCol();
+            else
+                obstacles[word] &= ~(1L << cell.getCol());
+        }
+        modCount++;
+        for (CellTypeListener listener : listeners)
+            listener.cellTypeChanged(cell, oldType);
+    }
+
+    /**
+     * Returns the number of times the layout of this Maze has changed, either by
+     * reinitializing it or by a Cell changing type. Structures built from the Maze
+     * can compare it with the count they were built at to tell if they are out of
+     * date.
+     * 
+     * @return the number of times the layout of this Maze has changed.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Adds a listener that is told whenever the type of a Cell in this Maze
+     * changes.
+     * 
+     * @param listener the listener to add.
+     */
+    public void addCellTypeListener(CellTypeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@code addCellTypeListener}.
+     * 
+     * @param listener the listener to remove.
+     */
+    public void removeCellTypeListener(CellTypeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the DynamicConnectivity attached to this Maze, creating it the first
+     * time. It is kept up to date as Cells change type, so it can always answer
+     * whether one Cell can reach another.
+     * 
+     * @return the DynamicConnectivity of this Maze.
+     */
+    public DynamicConnectivity getConnectivity() {
+        if (connectivity == null) {
+            connectivity = new DynamicConnectivity(this);
+            addCellTypeListener(connectivity);
+        }
+        return connectivity;
     }
 
     /**
@@ -177,36 +486,65 @@ public class Maze implements Iterable<Cell> {
      */
     public LinkedList<Cell> getNeighbors(Cell c) {
         LinkedList<Cell> cells = new LinkedList<Cell>();
-        int[][] steps = new int[][] { { -1, 0 }, { 1, 0 }, { 0, 1 }, { 0, -1 } };
-        for (int[] step : steps) {
-            int nextRow = c.getRow() + step[0];
-            int nextCol = c.getCol() + step[1];
-            if (nextRow >= 0 && nextRow < getRows() && nextCol >= 0 && nextCol < getCols()
-                    && get(nextRow, nextCol).getType() != CellType.OBSTACLE)
-                cells.offer(get(nextRow, nextCol));
+        int mask = getNeighborMask(c.getRow(), c.getCol());
+        for (int direction = 0; direction < 4; direction++) {
+            if ((mask & (1 << direction)) != 0)
+                cells.offer(getNeighbor(c, direction));
         }
         return cells;
     }
 
-    public int countVisitedCells() {
-        int count = 0 ;
-        for ( int i = 0 ; i < rows ; i ++ ) {
-            for ( int j = 0 ; j < cols ; j ++ ) { 
-                if ( get( i , j ).getPrev() != null ) {
-                    count ++ ; 
-                }
-            }
+    /**
+     * Returns a 4-bit mask of the non-OBSTACLE neighbors of the specified
+     * location. Bit {@code d} is set if the neighbor in direction {@code d} (up,
+     * down, right, left) is inside the Maze and not an OBSTACLE. Unlike
+     * {@code getNeighbors}, this allocates nothing.
+     * 
+     * @param row the row
+     * @param col the column
+     * @return the mask of non-OBSTACLE neighbors.
+     */
+    public int getNeighborMask(int row, int col) {
+        int mask = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            int nextRow = row + ROW_STEPS[direction];
+            int nextCol = col + COL_STEPS[direction];
+            if (nextRow >= 0 && nextRow < rows && nextCol >= 0 && nextCol < cols
+                    && !isObstacle(nextRow, nextCol))
+                mask |= 1 << direction;
         }
-        return count ;
+        return mask;
+    }
+
+    /**
+     * Returns the Cell next to the given Cell in the given direction (0 up, 1
+     * down, 2 right, 3 left). The direction should be one set in the Cell's
+     * neighbor mask.
+     * 
+     * @param c         the Cell to step from.
+     * @param direction the direction to step in.
+     * @return the neighboring Cell.
+     */
+    public Cell getNeighbor(Cell c, int direction) {
+        return get(c.getRow() + ROW_STEPS[direction], c.getCol() + COL_STEPS[direction]);
+    }
+
+    /**
+     * Returns the number of Cells in this Maze that have a previous Cell.
+     * 
+     * @return the number of visited Cells.
+     */
+    public int countVisitedCells() {
+        return searchState == null ? 0 : searchState.countVisited();
     }
 
     public String toString() {
         StringBuilder output = new StringBuilder();
         output.append("-".repeat(cols + 3) + "\n");
-        for (Cell[] cells : landscape) {
+        for (int r = 0; r < rows; r++) {
             output.append("| ");
-            for (Cell cell : cells) {
-                output.append(cell.getType() == CellType.OBSTACLE ? 'X' : ' ');
+            for (int c = 0; c < cols; c++) {
+                output.append(isObstacle(r, c) ? 'X' : ' ');
             }
             output.append("|\n");
         }
@@ -13,6 +13,9 @@ public class MazeAStarSearch extends AbstractMazeSearch {
     // Priority queue to keep track of the cells to explore
     private PriorityQueue<Cell> priorityQueue;
 
+    // The f(n) value of each cell, indexed by the cell's index in the maze
+    private int[] fScore;
+
     /**
      * Comparator to compare the cells based on their f(n) values.
      * f(n) = g(n) + h(n)
@@ -21,9 +24,9 @@ public class MazeAStarSearch extends AbstractMazeSearch {
     Comparator<Cell> cellComparator = new Comparator<>() {
         @Override
         public int compare(Cell c1, Cell c2) {
-            // Compare the f(n) values of the cells
-            int fn1 = traceback(c1).size()+Math.abs(c1.getRow() - getTarget().getRow()) + Math.abs(c1.getCol() - getTarget().getCol());
-            int fn2 = traceback(c2).size()+Math.abs(c2.getRow() - getTarget().getRow()) + Math.abs(c2.getCol() - getTarget().getCol());
+            // Compare the cached f(n) values of the cells
+            int fn1 = fScore[getMaze().indexOf(c1)];
+            int fn2 = fScore[getMaze().indexOf(c2)];
             if (fn1 < fn2) {
                 return -1;
             } else if (fn2 < fn1) {
@@ -40,8 +43,49 @@ public class MazeAStarSearch extends AbstractMazeSearch {
      * @param maze the maze to search
      */
     public MazeAStarSearch(Maze maze){
-        super(maze);
-        priorityQueue = new Heap<Cell>(cellComparator);
+        this(maze, false);
+    }
+
+    /**
+     * Constructor that optionally keeps the cells to explore in a bucket queue
+     * instead of a binary heap. Since every f(n) is a small integer, the bucket
+     * queue adds and removes cells in constant time.
+     * 
+     * @param maze        the maze to search
+     * @param bucketQueue whether to use a bucket queue
+     */
+    public MazeAStarSearch(Maze maze, boolean bucketQueue){
+        this(maze, maze.getSearchState(), bucketQueue);
+    }
+
+    /**
+     * Constructor that records the search tree in the given SearchState instead
+     * of the maze's own.
+     * 
+     * @param maze  the maze to search
+     * @param state the SearchState to record the search tree in
+     */
+    public MazeAStarSearch(Maze maze, SearchState state){
+        this(maze, state, false);
+    }
+
+    /**
+     * Constructor that records the search tree in the given SearchState and
+     * optionally keeps the cells to explore in a bucket queue.
+     * 
+     * @param maze        the maze to search
+     * @param state       the SearchState to record the search tree in
+     * @param bucketQueue whether to use a bucket queue
+     */
+    public MazeAStarSearch(Maze maze, SearchState state, boolean bucketQueue){
+        super(maze, state);
+        if (bucketQueue){
+            priorityQueue = new BucketQueue<Cell>(cell -> fScore[maze.indexOf(cell)], maze::indexOf, maze::get);
+        }
+        else{
+            priorityQueue = new IndexedHeap<Cell>(cellComparator, maze::indexOf);
+        }
+        fScore = new int[maze.getRows() * maze.getCols()];
     }
 
     /**
@@ -61,6 +105,7 @@ public class MazeAStarSearch extends AbstractMazeSearch {
      */
     @Override
     public void addCell (Cell cell){
+        updateScore(cell);
         priorityQueue.offer(cell);
     }
 
@@ -85,9 +130,32 @@ public class MazeAStarSearch extends AbstractMazeSearch {
      */
     @Override
     public void updateCell(Cell cell){
+        updateScore(cell);
         priorityQueue.updatePriority(cell);
     }
 
+    /**
+     * Recomputes the cached f(n) value of the cell from its current g(n).
+     * 
+     * @param cell the cell whose f(n) value to update
+     */
+    private void updateScore(Cell cell){
+        int idx = getMaze().indexOf(cell);
+        fScore[idx] = getSearchState().getCost(idx) + manhattanDistance(cell, getTarget());
+    }
+
+    /**
+     * Returns the Manhattan distance between two cells, which is the number of
+     * steps between them if there were no obstacles.
+     * 
+     * @param c1 the first cell
+     * @param c2 the second cell
+     * @return the Manhattan distance between the cells
+     */
+    public static int manhattanDistance(Cell c1, Cell c2){
+        return Math.abs(c1.getRow() - c2.getRow()) + Math.abs(c1.getCol() - c2.getCol());
+    }
+
     public static void main(String[] args) {
         Maze maze = new Maze(10, 10, 0.2);
         MazeAStarSearch aStar = new MazeAStarSearch(maze);
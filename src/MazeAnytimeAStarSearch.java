@@ -0,0 +1,415 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A class that implements anytime repairing A* (ARA*) to find a
+ * path through a maze within a time budget. The first search orders cells by
+ * f(n) = g(n) + e * h(n), where h(n) is the Manhattan distance used by MazeAStarSearch and
+ * the weight e is above 1, so it heads for the target greedily and finds a path that is
+ * at most e times longer than the shortest one after expanding few cells. The weight is
+ * then lowered step by step down to 1. Each search continues from the last instead of
+ * starting over: the costs found so far are kept, and only the cells whose cost dropped
+ * since they were expanded are expanded again.
+ *
+ * After every search the path is published, together with how much longer than the
+ * shortest path it may be, as one Solution, so it can be read at any moment, even from
+ * another thread while the search is still improving it. A search run within
+ * SearchLimits that hits a limit after its first round still returns that best path.
+ */
+
+import java.util.Comparator;
+
+public class MazeAnytimeAStarSearch extends AbstractMazeSearch {
+
+    /**
+     * The weight of the heuristic in the first search when none is given.
+     */
+    public static final double DEFAULT_INITIAL_WEIGHT = 2.5;
+
+    /**
+     * How much the weight is lowered after each search when no step is given.
+     */
+    public static final double DEFAULT_WEIGHT_STEP = 0.5;
+
+    // The weight of the first search and how much it is lowered after each one
+    private double initialWeight;
+    private double weightStep;
+
+    // The weight of the current search
+    private double weight;
+
+    // Priority queue of the cells to expand, ordered by their f(n) values
+    private IndexedHeap<Integer> priorityQueue;
+
+    // The f(n) value of each queued cell
+    private double[] fScore;
+
+    // The search each cell was last expanded in, so cells expanded in the current one count as closed
+    private int[] closedIn;
+
+    // The cells whose cost dropped after they were expanded in the current search, and
+    // the search each cell was last added to that list in
+    private IntDeque inconsistent;
+    private int[] inconsistentIn;
+
+    // A number for each search, which is never reused, so the arrays above need no clearing
+    private int round;
+
+    // The best path found so far, or null if there is none yet
+    private volatile Solution best;
+
+    // The index offsets of the neighbors up, down, right and left of a cell
+    private int[] offsets;
+
+    /**
+     * Constructor for the MazeAnytimeAStarSearch class, which starts with the
+     * default weight and lowers it by the default step.
+     *
+     * @param maze the maze to search
+     */
+    public MazeAnytimeAStarSearch(Maze maze){
+        this(maze, DEFAULT_INITIAL_WEIGHT, DEFAULT_WEIGHT_STEP);
+    }
+
+    /**
+     * Constructor that starts with the given weight and lowers it by the given step.
+     *
+     * @param maze          the maze to search
+     * @param initialWeight the weight of the heuristic in the first search, at least 1
+     * @param weightStep    how much the weight is lowered after each search, more than 0
+     */
+    public MazeAnytimeAStarSearch(Maze maze, double initialWeight, double weightStep){
+        this(maze, maze.getSearchState(), initialWeight, weightStep);
+    }
+
+    /**
+     * Constructor that records the search tree in the given SearchState instead
+     * of the maze's own.
+     *
+     * @param maze          the maze to search
+     * @param state         the SearchState to record the search tree in
+     * @param initialWeight the weight of the heuristic in the first search, at least 1
+     * @param weightStep    how much the weight is lowered after each search, more than 0
+     */
+    public MazeAnytimeAStarSearch(Maze maze, SearchState state, double initialWeight, double weightStep){
+        super(maze, state);
+        if (initialWeight < 1){
+            throw new IllegalArgumentException("Initial weight must be at least 1: " + initialWeight);
+        }
+        if (!(weightStep > 0)){
+            throw new IllegalArgumentException("Weight step must be positive: " + weightStep);
+        }
+        this.initialWeight = initialWeight;
+        this.weightStep = weightStep;
+        int size = maze.getRows() * maze.getCols();
+        fScore = new double[size];
+        closedIn = new int[size];
+        inconsistentIn = new int[size];
+        inconsistent = new IntDeque();
+        Comparator<Integer> comparator = (a, b) -> Double.compare(fScore[a], fScore[b]);
+        priorityQueue = new IndexedHeap<Integer>(comparator, idx -> idx);
+        offsets = new int[] { -maze.getCols(), maze.getCols(), 1, -1 };
+    }
+
+    /**
+     * A path found by the search together with how many times longer than the
+     * shortest path it may be. Neither changes once the Solution is published.
+     */
+    public static final class Solution {
+
+        private final LinkedList<Cell> path;
+        private final double bound;
+
+        /**
+         * Constructor for the Solution class.
+         *
+         * @param path  the path found
+         * @param bound how many times longer than the shortest path it may be
+         */
+        Solution(LinkedList<Cell> path, double bound){
+            this.path = path;
+            this.bound = bound;
+        }
+
+        /**
+         * Returns the path found.
+         *
+         * @return the path from the starting cell to the target cell
+         */
+        public LinkedList<Cell> getPath(){
+            return path;
+        }
+
+        /**
+         * Returns how many times longer than the shortest path the path may be.
+         *
+         * @return the bound on the path, which is 1 for a shortest path
+         */
+        public double getBound(){
+            return bound;
+        }
+    }
+
+    /**
+     * Returns the number of cells remaining in the queue.
+     *
+     * @return the number of cells remaining in the queue
+     */
+    @Override
+    public int numRemainingCells(){
+        return priorityQueue.size();
+    }
+
+    /**
+     * Adds a cell to the queue with the f(n) value of the current weight.
+     *
+     * @param cell the cell to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        offer(getMaze().indexOf(cell));
+    }
+
+    /**
+     * Returns the next cell to expand and removes it from the queue.
+     *
+     * @return the next cell to expand, or null if the queue is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        Integer idx = priorityQueue.poll();
+        return idx == null ? null : getMaze().get(idx);
+    }
+
+    /**
+     * Updates the cell's priority from its current g(n).
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        offer(getMaze().indexOf(cell));
+    }
+
+    /**
+     * Returns the best path found so far together with its bound. It can be read
+     * at any moment, also from another thread while a search is running, and the
+     * path and bound always belong together.
+     *
+     * @return the best Solution found so far, or null if no path has been found yet
+     */
+    public Solution getSolution(){
+        return best;
+    }
+
+    /**
+     * Returns the best path found so far. It is never changed once it has been
+     * returned.
+     *
+     * @return the best path found so far, or null if no path has been found yet
+     */
+    public LinkedList<Cell> getBestPath(){
+        Solution solution = best;
+        return solution == null ? null : solution.getPath();
+    }
+
+    /**
+     * Returns how many times longer than the shortest path the best path found so
+     * far may be. It is 1 once the best path is known to be a shortest path. Use
+     * {@code getSolution} to read it together with its path while a search runs.
+     *
+     * @return the bound on the best path, or infinity if no path has been found yet
+     */
+    public double getBound(){
+        Solution solution = best;
+        return solution == null ? Double.POSITIVE_INFINITY : solution.getBound();
+    }
+
+    /**
+     * Returns the Manhattan distance from the cell with the given index to the
+     * target, which is the heuristic of MazeAStarSearch.
+     *
+     * @param idx the index of the cell
+     * @return the Manhattan distance to the target
+     */
+    private int heuristic(int idx){
+        int cols = getMaze().getCols();
+        return Math.abs(idx / cols - getTarget().getRow()) + Math.abs(idx % cols - getTarget().getCol());
+    }
+
+    /**
+     * Adds the cell with the given index to the queue, or updates its priority,
+     * using the current weight.
+     *
+     * @param idx the index of the cell
+     */
+    private void offer(int idx){
+        fScore[idx] = getSearchState().getCost(idx) + weight * heuristic(idx);
+        priorityQueue.offer(idx);
+    }
+
+    /**
+     * Expands cells until no queued cell could lead to a path shorter than the
+     * one to the target with the current weight, or until one of the search's
+     * limits.
+     *
+     * @param display whether to show the search in a window
+     * @param delay   the delay between steps of the search when it is shown
+     * @param window  the window the search is shown in, or null
+     * @return true if the search finished, false if it hit one of the limits
+     *         given to {@code search}
+     */
+    private boolean improvePath(boolean display, int delay, MazeSearchDisplay window){
+        Maze maze = getMaze();
+        SearchState state = getSearchState();
+        int cols = maze.getCols();
+        int targetIdx = maze.indexOf(getTarget());
+
+        while (priorityQueue.size() > 0){
+            int top = priorityQueue.peek();
+            if (state.hasParent(targetIdx) && state.getCost(targetIdx) <= fScore[top]){
+                return true;
+            }
+            if (!withinLimits(1)){
+                return false;
+            }
+            int cur = priorityQueue.poll();
+            closedIn[cur] = round;
+            setCur(maze.get(cur));
+
+            int g = state.getCost(cur) + 1;
+            int neighborMask = maze.getNeighborMask(cur / cols, cur % cols);
+            for (int direction = 0; direction < 4; direction++){
+                if ((neighborMask & (1 << direction)) == 0)
+                    continue;
+                int neighbor = cur + offsets[direction];
+                if (state.hasParent(neighbor) && state.getCost(neighbor) <= g)
+                    continue;
+                state.setParent(neighbor, cur, g);
+                if (closedIn[neighbor] != round){
+                    offer(neighbor);
+                } else if (inconsistentIn[neighbor] != round){
+                    // expanded already in this search, so it waits for the next one
+                    inconsistentIn[neighbor] = round;
+                    inconsistent.offerInt(neighbor);
+                }
+            }
+
+            if (display){
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                window.repaint();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Publishes the path just found, then lowers the weight and gets the queue
+     * ready for the next search: the cells whose cost dropped after they were
+     * expanded are queued again, and every queued cell gets the f(n) value of the
+     * new weight. The path is published with the tightest bound known: the weight,
+     * the bound of the path before it, or the one worked out from the queue.
+     */
+    private void nextRound(){
+        SearchState state = getSearchState();
+        int targetIdx = getMaze().indexOf(getTarget());
+        IntDeque queued = new IntDeque(priorityQueue.size() + inconsistent.size());
+        while (priorityQueue.size() > 0){
+            queued.offerInt(priorityQueue.poll());
+        }
+        while (!inconsistent.isEmpty()){
+            queued.offerInt(inconsistent.pollInt());
+        }
+
+        // No path can be shorter than the smallest g(n) + h(n) of a cell still to expand
+        int lowest = state.getCost(targetIdx);
+        for (int i = 0; i < queued.size(); i++){
+            int idx = queued.pollInt();
+            lowest = Math.min(lowest, state.getCost(idx) + heuristic(idx));
+            queued.offerInt(idx);
+        }
+        double bound = Math.min(getBound(), weight);
+        if (lowest > 0){
+            bound = Math.min(bound, (double) state.getCost(targetIdx) / lowest);
+        }
+        best = new Solution(traceback(getTarget()), bound);
+
+        weight = Math.max(1, weight - weightStep);
+        round++;
+        while (!queued.isEmpty()){
+            offer(queued.pollInt());
+        }
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell,
+     * lowering the weight until the path found is a shortest path.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        best = null;
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        SearchState state = getSearchState();
+        int startIdx = maze.indexOf(start);
+        int targetIdx = maze.indexOf(target);
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        // The search reuses its own costs between rounds, so it starts from a clean tree
+        state.clear();
+        priorityQueue.clear();
+        inconsistent.clear();
+        round++;
+        weight = initialWeight;
+        state.setParent(startIdx, startIdx, 0);
+        offer(startIdx);
+
+        while (improvePath(display, delay, displayWindow)){
+            if (!state.hasParent(targetIdx)){
+                return null; // we couldn't find the target, but we're done
+            }
+            if (weight == 1){
+                best = new Solution(traceback(target), 1);
+                break;
+            }
+            nextRound();
+        }
+        return getBestPath();
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell for at
+     * most the given time, returning the best path found by then.
+     *
+     * @param start           the starting cell
+     * @param target          the target cell
+     * @param timeLimitMillis the time the search may take, in milliseconds
+     * @return the best path from the starting cell to the target cell found in
+     *         time, or null if none was found
+     */
+    public LinkedList<Cell> search(Cell start, Cell target, long timeLimitMillis){
+        return search(start, target, new SearchLimits(Long.MAX_VALUE, timeLimitMillis)).getPath();
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(20, 20, 0.2);
+        MazeAnytimeAStarSearch araStar = new MazeAnytimeAStarSearch(maze, 3, 1);
+        araStar.search(maze.getStart(), maze.getTarget(), true, 50);
+        Solution solution = araStar.getSolution();
+        System.out.println("Path length " + (solution == null ? -1 : solution.getPath().size())
+                + ", at most " + (solution == null ? Double.POSITIVE_INFINITY : solution.getBound())
+                + " times the shortest");
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A class that implements bidirectional A* search to find a path
+ * through a maze. One priority queue grows from the start towards the target and
+ * another from the target towards the start, each using the Manhattan distance to the
+ * other end as its heuristic. Every time a cell is reached from both sides, the length
+ * of the path through it is recorded. The search stops once the shortest path recorded
+ * is no longer than the smallest f(n) left in one of the queues, since no path found
+ * afterwards could be shorter.
+ */
+
+import java.util.Comparator;
+
+public class MazeBidirectionalAStarSearch extends AbstractBidirectionalSearch {
+
+    // Priority queues of the cells to explore from the start and from the target
+    private IndexedHeap<Cell> forwardQueue;
+    private IndexedHeap<Cell> backwardQueue;
+
+    // The f(n) value of each cell on each side, indexed by the cell's index in the maze
+    private int[] forwardScore;
+    private int[] backwardScore;
+
+    // The index offsets of the neighbors up, down, right and left of a cell
+    private int[] offsets;
+
+    /**
+     * Constructor for the MazeBidirectionalAStarSearch class.
+     *
+     * @param maze the maze to search
+     */
+    public MazeBidirectionalAStarSearch(Maze maze){
+        this(maze, maze.getSearchState());
+    }
+
+    /**
+     * Constructor that records the tree grown from the start in the given
+     * SearchState instead of the maze's own.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the search tree in
+     */
+    public MazeBidirectionalAStarSearch(Maze maze, SearchState state){
+        super(maze, state);
+        forwardScore = new int[maze.getRows() * maze.getCols()];
+        backwardScore = new int[maze.getRows() * maze.getCols()];
+        forwardQueue = new IndexedHeap<Cell>(comparing(forwardScore), maze::indexOf);
+        backwardQueue = new IndexedHeap<Cell>(comparing(backwardScore), maze::indexOf);
+        offsets = new int[] { -maze.getCols(), maze.getCols(), 1, -1 };
+    }
+
+    /**
+     * Returns a comparator that compares cells by their f(n) values in the given
+     * array.
+     *
+     * @param score the f(n) value of each cell
+     * @return the comparator
+     */
+    private Comparator<Cell> comparing(int[] score){
+        return (c1, c2) -> Integer.compare(score[getMaze().indexOf(c1)], score[getMaze().indexOf(c2)]);
+    }
+
+    /**
+     * Returns the number of cells remaining in both queues.
+     *
+     * @return the number of cells remaining in both queues
+     */
+    @Override
+    public int numRemainingCells(){
+        return forwardQueue.size() + backwardQueue.size();
+    }
+
+    /**
+     * Adds a cell to the queue grown from the start.
+     *
+     * @param cell the cell to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        int idx = getMaze().indexOf(cell);
+        forwardScore[idx] = getSearchState().getCost(idx) + MazeAStarSearch.manhattanDistance(cell, getTarget());
+        forwardQueue.offer(cell);
+    }
+
+    /**
+     * Finds the next cell to explore from the start by popping it from its queue.
+     *
+     * @return the next cell to explore, or null if the queue is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        return forwardQueue.poll();
+    }
+
+    /**
+     * Updates the cell's priority in the queue grown from the start.
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        addCell(cell);
+    }
+
+    /**
+     * Returns the smallest f(n) value in the given queue.
+     *
+     * @param queue the queue
+     * @param score the f(n) value of each cell
+     * @return the smallest f(n) value in the queue
+     */
+    private int topScore(IndexedHeap<Cell> queue, int[] score){
+        return score[getMaze().indexOf(queue.peek())];
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        SearchState state = getSearchState();
+        SearchState backward = getBackwardState();
+        int startIdx = maze.indexOf(start);
+        int targetIdx = maze.indexOf(target);
+        backward.clear();
+        forwardQueue.clear();
+        backwardQueue.clear();
+
+        state.setParent(startIdx, startIdx);
+        backward.setParent(targetIdx, targetIdx);
+        if (startIdx == targetIdx){
+            return traceback(target);
+        }
+        addCell(start);
+        backwardScore[targetIdx] = MazeAStarSearch.manhattanDistance(target, start);
+        backwardQueue.offer(target);
+
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        // The length of the shortest path found so far and the cell where its halves meet
+        int best = Integer.MAX_VALUE;
+        int meet = -1;
+
+        while (forwardQueue.size() > 0 && backwardQueue.size() > 0){
+            if (best <= Math.max(topScore(forwardQueue, forwardScore), topScore(backwardQueue, backwardScore))){
+                break;
+            }
+            if (!withinLimits(1)){
+                return null;
+            }
+
+            // grow whichever side has fewer cells waiting
+            boolean forward = forwardQueue.size() <= backwardQueue.size();
+            IndexedHeap<Cell> queue = forward ? forwardQueue : backwardQueue;
+            SearchState tree = forward ? state : backward;
+            SearchState other = forward ? backward : state;
+            int[] score = forward ? forwardScore : backwardScore;
+            Cell goal = forward ? target : start;
+
+            Cell cur = queue.poll();
+            setCur(cur);
+            int curIdx = maze.indexOf(cur);
+            int g = tree.getCost(curIdx) + 1;
+            int neighborMask = maze.getNeighborMask(curIdx / cols, curIdx % cols);
+            for (int direction = 0; direction < 4; direction++){
+                if ((neighborMask & (1 << direction)) == 0)
+                    continue;
+                int neighborIdx = curIdx + offsets[direction];
+                if (!tree.hasParent(neighborIdx) || g < tree.getCost(neighborIdx)){
+                    Cell neighbor = maze.get(neighborIdx);
+                    tree.setParent(neighborIdx, curIdx, g);
+                    score[neighborIdx] = g + MazeAStarSearch.manhattanDistance(neighbor, goal);
+                    queue.offer(neighbor);
+                }
+                // a cell reached from both sides joins the two trees
+                if (other.hasParent(neighborIdx) && tree.getCost(neighborIdx) + other.getCost(neighborIdx) < best){
+                    best = tree.getCost(neighborIdx) + other.getCost(neighborIdx);
+                    meet = neighborIdx;
+                }
+            }
+
+            if (display){
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+
+        if (meet == -1){
+            return null; // we couldn't find the target, but we're done
+        }
+        setCur(maze.get(meet));
+        return stitch(meet);
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(10, 10, 0.2);
+        MazeBidirectionalAStarSearch aStar = new MazeBidirectionalAStarSearch(maze);
+        aStar.search(maze.getStart(), maze.getTarget(), true, 100);
+    }
+}
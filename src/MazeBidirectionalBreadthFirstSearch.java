@@ -0,0 +1,185 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A class that implements bidirectional breadth-first search to find a
+ * path through a maze. One queue grows from the start and another from the target,
+ * and each step expands a whole level of whichever queue is smaller. When a level
+ * reaches a Cell already reached from the other side, the shortest path through any
+ * Cell met in that level is returned. Each side only has to search about half as deep
+ * as a single breadth-first search, so far fewer Cells are reached.
+ */
+
+public class MazeBidirectionalBreadthFirstSearch extends AbstractBidirectionalSearch {
+
+    // The queues of cell indices grown from the start and from the target
+    private IntDeque forwardQueue;
+    private IntDeque backwardQueue;
+
+    // The index offsets of the neighbors up, down, right and left of a cell
+    private int[] offsets;
+
+    /**
+     * Constructor for the MazeBidirectionalBreadthFirstSearch class.
+     *
+     * @param maze the maze to search
+     */
+    public MazeBidirectionalBreadthFirstSearch(Maze maze){
+        this(maze, maze.getSearchState());
+    }
+
+    /**
+     * Constructor that records the tree grown from the start in the given
+     * SearchState instead of the maze's own.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the search tree in
+     */
+    public MazeBidirectionalBreadthFirstSearch(Maze maze, SearchState state){
+        super(maze, state);
+        forwardQueue = new IntDeque();
+        backwardQueue = new IntDeque();
+        offsets = new int[] { -maze.getCols(), maze.getCols(), 1, -1 };
+    }
+
+    /**
+     * Returns the number of cells remaining in both queues.
+     *
+     * @return the number of cells remaining in both queues
+     */
+    @Override
+    public int numRemainingCells(){
+        return forwardQueue.size() + backwardQueue.size();
+    }
+
+    /**
+     * Adds a cell to the queue grown from the start.
+     *
+     * @param cell the cell to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        forwardQueue.offerInt(getMaze().indexOf(cell));
+    }
+
+    /**
+     * Finds the next cell to explore from the start by polling its queue.
+     *
+     * @return the next cell to explore, or null if the queue is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        return forwardQueue.isEmpty() ? null : getMaze().get(forwardQueue.pollInt());
+    }
+
+    /**
+     * Updates the cell's priority. In this case, it does nothing because BFS
+     * does not require priority updates.
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        // No priority update needed for BFS
+    }
+
+    /**
+     * Expands every cell in the current level of the given queue.
+     *
+     * @param queue the queue to expand
+     * @param tree  the search tree the queue belongs to
+     * @param other the search tree grown from the other side
+     * @return the index of the meeting cell on the shortest path found, or -1 if
+     *         the trees have not met
+     */
+    private int expandLevel(IntDeque queue, SearchState tree, SearchState other){
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        int meet = -1;
+        int best = Integer.MAX_VALUE;
+        for (int remaining = queue.size(); remaining > 0; remaining--){
+            int cur = queue.pollInt();
+            int neighborMask = maze.getNeighborMask(cur / cols, cur % cols);
+            for (int direction = 0; direction < 4; direction++){
+                if ((neighborMask & (1 << direction)) == 0)
+                    continue;
+                int neighbor = cur + offsets[direction];
+                if (tree.hasParent(neighbor))
+                    continue;
+                tree.setParent(neighbor, cur);
+                queue.offerInt(neighbor);
+                // a cell reached from both sides joins the two trees
+                if (other.hasParent(neighbor) && tree.getCost(neighbor) + other.getCost(neighbor) < best){
+                    best = tree.getCost(neighbor) + other.getCost(neighbor);
+                    meet = neighbor;
+                }
+            }
+        }
+        return meet;
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        SearchState state = getSearchState();
+        SearchState backward = getBackwardState();
+        int startIdx = maze.indexOf(start);
+        int targetIdx = maze.indexOf(target);
+        backward.clear();
+        forwardQueue.clear();
+        backwardQueue.clear();
+
+        state.setParent(startIdx, startIdx);
+        backward.setParent(targetIdx, targetIdx);
+        if (startIdx == targetIdx){
+            return traceback(target);
+        }
+        forwardQueue.offerInt(startIdx);
+        backwardQueue.offerInt(targetIdx);
+
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()){
+            // grow whichever side has the smaller level to expand
+            boolean forward = forwardQueue.size() <= backwardQueue.size();
+            if (!withinLimits(forward ? forwardQueue.size() : backwardQueue.size())){
+                return null;
+            }
+            int meet = forward ? expandLevel(forwardQueue, state, backward)
+                               : expandLevel(backwardQueue, backward, state);
+            if (meet != -1){
+                setCur(maze.get(meet));
+                return stitch(meet);
+            }
+
+            if (display){
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+
+        return null; // we couldn't find the target, but we're done
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(10, 10, 0.2);
+        MazeBidirectionalBreadthFirstSearch bfs = new MazeBidirectionalBreadthFirstSearch(maze);
+        bfs.search(maze.getStart(), maze.getTarget(), true, 100);
+    }
+}
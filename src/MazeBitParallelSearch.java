@@ -0,0 +1,171 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A class that implements breadth-first search with a
+ * BitParallelFlood to find a path through a maze. Each layer of the search is found 64
+ * Cells at a time with shifts and masks instead of Cell by Cell from a queue, and no
+ * search tree is kept while the flood runs. Once the target is reached, the path is
+ * recovered by stepping back from the target one layer at a time, and only the Cells
+ * of the path are recorded in the SearchState.
+ */
+
+public class MazeBitParallelSearch extends AbstractMazeSearch {
+
+    // The flood that finds the layers of the search
+    private BitParallelFlood flood;
+
+    /**
+     * Constructor for the MazeBitParallelSearch class, with its own flood.
+     *
+     * @param maze the maze to search
+     */
+    public MazeBitParallelSearch(Maze maze){
+        this(maze, new BitParallelFlood(maze));
+    }
+
+    /**
+     * Constructor that uses the given flood, so its bitsets can be shared by many
+     * searches.
+     *
+     * @param maze  the maze to search
+     * @param flood the flood of the maze
+     */
+    public MazeBitParallelSearch(Maze maze, BitParallelFlood flood){
+        this(maze, maze.getSearchState(), flood);
+    }
+
+    /**
+     * Constructor that records the path found in the given SearchState instead
+     * of the maze's own.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the path in
+     * @param flood the flood of the maze
+     */
+    public MazeBitParallelSearch(Maze maze, SearchState state, BitParallelFlood flood){
+        super(maze, state);
+        if (flood.getMaze() != maze){
+            throw new IllegalArgumentException("The BitParallelFlood belongs to another maze");
+        }
+        this.flood = flood;
+    }
+
+    /**
+     * Returns the flood used by this search.
+     *
+     * @return the flood used by this search
+     */
+    public BitParallelFlood getFlood(){
+        return flood;
+    }
+
+    /**
+     * Returns the number of cells in the current layer.
+     *
+     * @return the number of cells in the current layer
+     */
+    @Override
+    public int numRemainingCells(){
+        return flood.countFrontier();
+    }
+
+    /**
+     * Adds a cell to the current layer.
+     *
+     * @param cell the cell to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        flood.addSource(getMaze().indexOf(cell));
+    }
+
+    /**
+     * Returns and removes the first cell of the current layer.
+     *
+     * @return the first cell of the current layer, or null if it is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        int idx = flood.pollFrontier();
+        return idx == -1 ? null : getMaze().get(idx);
+    }
+
+    /**
+     * Updates the cell's priority. In this case, it does nothing because BFS
+     * does not require priority updates.
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        // No priority update needed for BFS
+    }
+
+    /**
+     * Returns the number of cells reached by the last search.
+     *
+     * @return the number of cells reached by the last search
+     */
+    @Override
+    public int countReachedCells(){
+        return flood.countReached();
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        int startIdx = maze.indexOf(start);
+        int targetIdx = maze.indexOf(target);
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        flood.start(startIdx, true);
+        while (!flood.isReached(targetIdx)){
+            // the whole layer is expanded at once
+            if (!withinLimits(flood.countFrontier())){
+                return null;
+            }
+            if (!flood.advance()){
+                return null; // we couldn't find the target, but we're done
+            }
+
+            if (display){
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+
+        // Recover the path by stepping back through the layers
+        SearchState state = getSearchState();
+        state.setParent(startIdx, startIdx);
+        int cur = targetIdx;
+        while (cur != startIdx){
+            int prev = flood.stepBack(cur);
+            state.setParent(cur, prev);
+            cur = prev;
+        }
+        return traceback(target);
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(10, 10, 0.2);
+        MazeBitParallelSearch search = new MazeBitParallelSearch(maze);
+        search.search(maze.getStart(), maze.getTarget(), true, 100);
+    }
+}
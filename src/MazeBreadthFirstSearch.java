@@ -9,9 +9,51 @@
 public class MazeBreadthFirstSearch extends AbstractMazeSearch {
     private LinkedList<Cell> queue;
 
+    // The queue of cell indices used instead of queue when the frontier is packed
+    private IntDeque indexQueue;
+
     public MazeBreadthFirstSearch(Maze maze){
-        super(maze);
-        queue = new LinkedList<Cell>();
+        this(maze, false);
+    }
+
+    /**
+     * Constructor that optionally keeps the queue as packed cell indices, which
+     * avoids allocating a node for every cell added to it.
+     * 
+     * @param maze           the maze to search
+     * @param packedFrontier whether to keep the queue as packed cell indices
+     */
+    public MazeBreadthFirstSearch(Maze maze, boolean packedFrontier){
+        this(maze, maze.getSearchState(), packedFrontier);
+    }
+
+    /**
+     * Constructor that records the search tree in the given SearchState instead
+     * of the maze's own.
+     * 
+     * @param maze  the maze to search
+     * @param state the SearchState to record the search tree in
+     */
+    public MazeBreadthFirstSearch(Maze maze, SearchState state){
+        this(maze, state, false);
+    }
+
+    /**
+     * Constructor that records the search tree in the given SearchState and
+     * optionally keeps the queue as packed cell indices.
+     * 
+     * @param maze           the maze to search
+     * @param state          the SearchState to record the search tree in
+     * @param packedFrontier whether to keep the queue as packed cell indices
+     */
+    public MazeBreadthFirstSearch(Maze maze, SearchState state, boolean packedFrontier){
+        super(maze, state);
+        if (packedFrontier){
+            indexQueue = new IntDeque();
+        }
+        else{
+            queue = new LinkedList<Cell>();
+        }
     }
 
     /**
@@ -21,7 +63,7 @@ public class MazeBreadthFirstSearch extends AbstractMazeSearch {
      */
     @Override
     public int numRemainingCells(){
-        return queue.size();
+        return indexQueue != null ? indexQueue.size() : queue.size();
     }
 
     /**
@@ -31,6 +73,10 @@ public class MazeBreadthFirstSearch extends AbstractMazeSearch {
      */
     @Override
     public void addCell (Cell cell){
+        if (indexQueue != null){
+            indexQueue.offerInt(getMaze().indexOf(cell));
+            return;
+        }
         queue.offer(cell);
     }
 
@@ -41,6 +87,9 @@ public class MazeBreadthFirstSearch extends AbstractMazeSearch {
      */
     @Override
     public Cell findNextCell(){
+        if (indexQueue != null){
+            return indexQueue.isEmpty() ? null : getMaze().get(indexQueue.pollInt());
+        }
         if (queue.isEmpty()){
             return null;
         }
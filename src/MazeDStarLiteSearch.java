@@ -0,0 +1,472 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A class that implements D* Lite to find a path through a maze
+ * that keeps changing. The search runs backwards from the target, keeping for every
+ * Cell g(n), the distance to the target it last settled on, and rhs(n), the distance
+ * its neighbors currently give it. A Cell whose two values differ is inconsistent and
+ * waits in a priority queue. Both values are kept between searches, and the searcher
+ * listens to the maze, so when Cells change type only they and their neighbors are made
+ * inconsistent, and the next search only repairs the part of the search tree that the
+ * change affected instead of starting over.
+ *
+ * The start may move between searches to the Cell the agent has walked to, which is
+ * what D* Lite is made for. The priorities of the queued Cells are not recomputed
+ * when it moves; instead the distance moved is added to every new priority.
+ *
+ * The searcher starts listening to the maze at its first search, and keeps the maze
+ * holding on to it until it is closed, so it should be closed once it is no longer
+ * needed, for instance with a try-with-resources statement.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+public class MazeDStarLiteSearch extends AbstractMazeSearch implements CellTypeListener, AutoCloseable {
+
+    /**
+     * Stands for a distance to a Cell that cannot reach the target. Half the
+     * largest int, so adding a step or a heuristic to it never overflows.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    // The distance to the target settled on by each cell, and the one its neighbors give it
+    private int[] g;
+    private int[] rhs;
+
+    // The two parts of the priority each queued cell was queued with
+    private int[] key1;
+    private int[] key2;
+
+    // Priority queue of the inconsistent cells
+    private IndexedHeap<Integer> priorityQueue;
+
+    // The target the values lead to, or -1 before the first search
+    private int goal;
+
+    // The start of the last search, and the total distance the start has moved since
+    private int lastStart;
+    private int keyModifier;
+
+    // The cells that changed type since the last search
+    private IntDeque changed;
+
+    // The modification count the maze should have if it only changed through the cells above
+    private int expectedModCount;
+
+    // Whether the searcher is listening to the maze
+    private boolean listening;
+
+    // The number of cells expanded by the last search
+    private int expanded;
+
+    // The index offsets of the neighbors up, down, right and left of a cell
+    private int[] offsets;
+
+    /**
+     * Constructor for the MazeDStarLiteSearch class. The searcher starts listening
+     * to the maze's changes at its first search, until {@code close} is called.
+     *
+     * @param maze the maze to search
+     */
+    public MazeDStarLiteSearch(Maze maze){
+        this(maze, maze.getSearchState());
+    }
+
+    /**
+     * Constructor that records the path found in the given SearchState instead
+     * of the maze's own.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the path in
+     */
+    public MazeDStarLiteSearch(Maze maze, SearchState state){
+        super(maze, state);
+        int size = maze.getRows() * maze.getCols();
+        g = new int[size];
+        rhs = new int[size];
+        key1 = new int[size];
+        key2 = new int[size];
+        Comparator<Integer> comparator = (a, b) -> key1[a] != key1[b]
+                ? Integer.compare(key1[a], key1[b]) : Integer.compare(key2[a], key2[b]);
+        priorityQueue = new IndexedHeap<Integer>(comparator, idx -> idx);
+        changed = new IntDeque();
+        goal = -1;
+        offsets = new int[] { -maze.getCols(), maze.getCols(), 1, -1 };
+    }
+
+    /**
+     * Stops listening to the maze, so the maze no longer holds on to the searcher.
+     * A later search listens again and starts over.
+     */
+    @Override
+    public void close(){
+        if (listening){
+            getMaze().removeCellTypeListener(this);
+            listening = false;
+        }
+        goal = -1;
+    }
+
+    /**
+     * Returns the number of cells remaining in the priority queue.
+     *
+     * @return the number of cells remaining in the priority queue
+     */
+    @Override
+    public int numRemainingCells(){
+        return priorityQueue.size();
+    }
+
+    /**
+     * Adds a cell to the priority queue, or updates its priority.
+     *
+     * @param cell the cell to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        queue(getMaze().indexOf(cell));
+    }
+
+    /**
+     * Returns the next cell to expand and removes it from the priority queue.
+     *
+     * @return the next cell to expand, or null if the queue is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        Integer idx = priorityQueue.poll();
+        return idx == null ? null : getMaze().get(idx);
+    }
+
+    /**
+     * Updates the cell's position in the priority queue.
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        queue(getMaze().indexOf(cell));
+    }
+
+    /**
+     * Returns the number of cells expanded by the last search, which after a
+     * change is only the number of cells whose distance had to be repaired.
+     *
+     * @return the number of cells expanded by the last search
+     */
+    @Override
+    public int countReachedCells(){
+        return expanded;
+    }
+
+    /**
+     * Returns the distance from the cell with the given index to the target, as
+     * far as the last search worked it out. It is exact for the start and the
+     * cells of the path found.
+     *
+     * @param idx the index of the cell
+     * @return the distance to the target, or -1 if it is not known to be finite
+     */
+    public int getDistance(int idx){
+        int best = Math.min(g[idx], rhs[idx]);
+        return best >= INFINITY ? -1 : best;
+    }
+
+    /**
+     * Remembers that a cell of the maze changed type, so the next search repairs
+     * the distances around it.
+     *
+     * @param cell    the cell whose type changed
+     * @param oldType the type the cell had before
+     */
+    @Override
+    public void cellTypeChanged(Cell cell, CellType oldType){
+        changed.offerInt(getMaze().indexOf(cell));
+        expectedModCount++;
+    }
+
+    /**
+     * Returns the Manhattan distance between two cells.
+     *
+     * @param a the index of one cell
+     * @param b the index of the other cell
+     * @return the Manhattan distance between them
+     */
+    private int heuristic(int a, int b){
+        int cols = getMaze().getCols();
+        return Math.abs(a / cols - b / cols) + Math.abs(a % cols - b % cols);
+    }
+
+    /**
+     * Computes the priority of the cell with the given index from its current
+     * values and stores it in the key arrays.
+     *
+     * @param idx   the index of the cell
+     * @param start the index of the start
+     */
+    private void computeKey(int idx, int start){
+        int best = Math.min(g[idx], rhs[idx]);
+        key1[idx] = best + heuristic(start, idx) + keyModifier;
+        key2[idx] = best;
+    }
+
+    /**
+     * Puts the cell with the given index in the priority queue with its current
+     * priority, or moves it there if it is already queued.
+     *
+     * @param idx the index of the cell
+     */
+    private void queue(int idx){
+        computeKey(idx, getMaze().indexOf(getStart()));
+        priorityQueue.offer(idx);
+    }
+
+    /**
+     * Returns the distance the free neighbors of a cell give it: one more than
+     * the smallest g(n) among them.
+     *
+     * @param idx the index of the cell
+     * @return the rhs value of the cell
+     */
+    private int lookahead(int idx){
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        if (maze.isObstacle(idx / cols, idx % cols)){
+            return INFINITY;
+        }
+        if (idx == goal){
+            return 0;
+        }
+        int best = INFINITY;
+        int mask = maze.getNeighborMask(idx / cols, idx % cols);
+        for (int direction = 0; direction < 4; direction++){
+            if ((mask & (1 << direction)) != 0)
+                best = Math.min(best, g[idx + offsets[direction]] + 1);
+        }
+        return Math.min(best, INFINITY);
+    }
+
+    /**
+     * Queues the cell with the given index if it is inconsistent and takes it out
+     * of the queue if it is not.
+     *
+     * @param idx the index of the cell
+     */
+    private void updateVertex(int idx){
+        if (g[idx] != rhs[idx]){
+            queue(idx);
+        } else {
+            priorityQueue.remove(idx);
+        }
+    }
+
+    /**
+     * Throws away every value and starts over with the given target.
+     *
+     * @param target the index of the target
+     * @param start  the index of the start
+     */
+    private void initialize(int target, int start){
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        priorityQueue.clear();
+        changed.clear();
+        expectedModCount = getMaze().getModCount();
+        goal = target;
+        lastStart = start;
+        keyModifier = 0;
+        rhs[goal] = lookahead(goal);
+        updateVertex(goal);
+    }
+
+    /**
+     * Makes the cells that changed type since the last search, and their
+     * neighbors, consistent with the maze again.
+     */
+    private void applyChanges(){
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        while (!changed.isEmpty()){
+            int idx = changed.pollInt();
+            rhs[idx] = lookahead(idx);
+            updateVertex(idx);
+            // the cell's free neighbors lost or gained it as a way to the target
+            int mask = maze.getNeighborMask(idx / cols, idx % cols);
+            for (int direction = 0; direction < 4; direction++){
+                if ((mask & (1 << direction)) == 0)
+                    continue;
+                int neighbor = idx + offsets[direction];
+                rhs[neighbor] = lookahead(neighbor);
+                updateVertex(neighbor);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the priority of the first queued cell is smaller than the
+     * priority the start would have.
+     *
+     * @param start the index of the start
+     * @return true if the first queued cell comes before the start
+     */
+    private boolean topBeforeStart(int start){
+        if (priorityQueue.size() == 0){
+            return false;
+        }
+        int top = priorityQueue.peek();
+        int best = Math.min(g[start], rhs[start]);
+        int startKey1 = best + keyModifier;
+        return key1[top] < startKey1 || key1[top] == startKey1 && key2[top] < best;
+    }
+
+    /**
+     * Expands inconsistent cells in order of priority until the distance from the
+     * start to the target is settled.
+     *
+     * @param display whether to show the search in a window
+     * @param delay   the delay between steps of the search when it is shown
+     * @return true if the distance was settled, false if the search hit one of
+     *         its limits first, leaving the rest of the queue for the next search
+     */
+    private boolean computeShortestPath(boolean display, int delay){
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        int start = maze.indexOf(getStart());
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        while (topBeforeStart(start) || rhs[start] > g[start]){
+            int cur = priorityQueue.peek();
+            int oldKey1 = key1[cur];
+            int oldKey2 = key2[cur];
+            computeKey(cur, start);
+            if (oldKey1 < key1[cur] || oldKey1 == key1[cur] && oldKey2 < key2[cur]){
+                // the start moved since the cell was queued, so it goes back with its new priority
+                priorityQueue.updatePriority(cur);
+                continue;
+            }
+            if (!withinLimits(1)){
+                return false;
+            }
+            priorityQueue.poll();
+            setCur(maze.get(cur));
+            expanded++;
+
+            int mask = maze.getNeighborMask(cur / cols, cur % cols);
+            if (g[cur] > rhs[cur]){
+                // the cell got closer to the target, so its neighbors may too
+                g[cur] = rhs[cur];
+                for (int direction = 0; direction < 4; direction++){
+                    if ((mask & (1 << direction)) == 0)
+                        continue;
+                    int neighbor = cur + offsets[direction];
+                    if (neighbor != goal && g[cur] + 1 < rhs[neighbor]){
+                        rhs[neighbor] = g[cur] + 1;
+                        updateVertex(neighbor);
+                    }
+                }
+            } else {
+                // the cell got further from the target, so every neighbor that went through it is recomputed
+                int oldG = g[cur];
+                g[cur] = INFINITY;
+                rhs[cur] = lookahead(cur);
+                updateVertex(cur);
+                for (int direction = 0; direction < 4; direction++){
+                    if ((mask & (1 << direction)) == 0)
+                        continue;
+                    int neighbor = cur + offsets[direction];
+                    if (rhs[neighbor] == oldG + 1){
+                        rhs[neighbor] = lookahead(neighbor);
+                        updateVertex(neighbor);
+                    }
+                }
+            }
+
+            if (display){
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell. If the
+     * target is the same as in the last search, the distances found then are
+     * repaired rather than found again.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        int startIdx = maze.indexOf(start);
+        int targetIdx = maze.indexOf(target);
+        expanded = 0;
+        if (!listening){
+            maze.addCellTypeListener(this);
+            listening = true;
+            goal = -1;
+        }
+        if (targetIdx != goal || maze.getModCount() != expectedModCount){
+            // a new target, or the maze was regenerated without telling its listeners
+            initialize(targetIdx, startIdx);
+        } else {
+            keyModifier += heuristic(lastStart, startIdx);
+            lastStart = startIdx;
+            applyChanges();
+        }
+        if (!computeShortestPath(display, delay)){
+            return null;
+        }
+        // the search may stop with the start's own g(n) unsettled, but its rhs(n) is right
+        if (rhs[startIdx] >= INFINITY){
+            return null; // we couldn't find the target, but we're done
+        }
+
+        // Walk from the start to the target, always to the neighbor closest to the target
+        SearchState state = getSearchState();
+        int cols = maze.getCols();
+        int cur = startIdx;
+        state.setParent(cur, cur);
+        while (cur != targetIdx){
+            int mask = maze.getNeighborMask(cur / cols, cur % cols);
+            int next = -1;
+            for (int direction = 0; direction < 4; direction++){
+                int neighbor = cur + offsets[direction];
+                if ((mask & (1 << direction)) != 0 && (next == -1 || g[neighbor] < g[next]))
+                    next = neighbor;
+            }
+            if (next == -1 || g[next] >= g[cur]){
+                return null; // the distances do not lead to the target
+            }
+            state.setParent(next, cur);
+            cur = next;
+        }
+        return traceback(target);
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(20, 20, 0.2);
+        try (MazeDStarLiteSearch dStarLite = new MazeDStarLiteSearch(maze)){
+            LinkedList<Cell> path = dStarLite.search(maze.getStart(), maze.getTarget(), true, 50);
+            if (path != null && path.size() > 2){
+                // block the middle of the path and repair it
+                path.get(path.size() / 2).setType(CellType.OBSTACLE);
+                dStarLite.search(maze.getStart(), maze.getTarget(), true, 50);
+            }
+        }
+    }
+}
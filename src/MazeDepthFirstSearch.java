@@ -9,9 +9,51 @@
 public class MazeDepthFirstSearch extends AbstractMazeSearch {
     private LinkedList<Cell> stack;
 
+    // The stack of cell indices used instead of stack when the frontier is packed
+    private IntDeque indexStack;
+
     public MazeDepthFirstSearch(Maze maze){
-        super(maze);
-        stack = new LinkedList<Cell>();
+        this(maze, false);
+    }
+
+    /**
+     * Constructor that optionally keeps the stack as packed cell indices, which
+     * avoids allocating a node for every cell added to it.
+     * 
+     * @param maze           the maze to search
+     * @param packedFrontier whether to keep the stack as packed cell indices
+     */
+    public MazeDepthFirstSearch(Maze maze, boolean packedFrontier){
+        this(maze, maze.getSearchState(), packedFrontier);
+    }
+
+    /**
+     * Constructor that records the search tree in the given SearchState instead
+     * of the maze's own.
+     * 
+     * @param maze  the maze to search
+     * @param state the SearchState to record the search tree in
+     */
+    public MazeDepthFirstSearch(Maze maze, SearchState state){
+        this(maze, state, false);
+    }
+
+    /**
+     * Constructor that records the search tree in the given SearchState and
+     * optionally keeps the stack as packed cell indices.
+     * 
+     * @param maze           the maze to search
+     * @param state          the SearchState to record the search tree in
+     * @param packedFrontier whether to keep the stack as packed cell indices
+     */
+    public MazeDepthFirstSearch(Maze maze, SearchState state, boolean packedFrontier){
+        super(maze, state);
+        if (packedFrontier){
+            indexStack = new IntDeque();
+        }
+        else{
+            stack = new LinkedList<Cell>();
+        }
     }
 
     /**
@@ -21,7 +63,7 @@ public class MazeDepthFirstSearch extends AbstractMazeSearch {
      */
     @Override
     public int numRemainingCells(){
-        return stack.size();
+        return indexStack != null ? indexStack.size() : stack.size();
     }
 
     /**
@@ -31,6 +73,10 @@ public class MazeDepthFirstSearch extends AbstractMazeSearch {
      */
     @Override
     public void addCell (Cell cell){
+        if (indexStack != null){
+            indexStack.pushInt(getMaze().indexOf(cell));
+            return;
+        }
         stack.push(cell);
     }
 
@@ -41,6 +87,9 @@ public class MazeDepthFirstSearch extends AbstractMazeSearch {
      */
     @Override
     public Cell findNextCell(){
+        if (indexStack != null){
+            return indexStack.isEmpty() ? null : getMaze().get(indexStack.pollInt());
+        }
         if (stack.isEmpty()){
             return null;
         }
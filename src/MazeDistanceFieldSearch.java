@@ -0,0 +1,171 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A class that finds shortest paths through a maze using cached
+ * distance fields, for workloads where many queries share the same target. The first
+ * query for a target runs one breadth-first search outwards from the target. Every
+ * later query for that target just walks downhill from its start through the distance
+ * field, which takes time proportional to the length of the path. The Cells the first
+ * query expands to compute the field count against its limits.
+ */
+
+public class MazeDistanceFieldSearch extends AbstractMazeSearch {
+
+    // The cached distance fields
+    private DistanceFieldCache cache;
+
+    // The index of the cell the walk has reached, or -1 if it is not walking
+    private int next;
+
+    /**
+     * Constructor for the MazeDistanceFieldSearch class, with its own cache of
+     * the default size.
+     *
+     * @param maze the maze to search
+     */
+    public MazeDistanceFieldSearch(Maze maze){
+        this(maze, new DistanceFieldCache(maze));
+    }
+
+    /**
+     * Constructor that uses the given cache, so one cache can be shared by many
+     * searches.
+     *
+     * @param maze  the maze to search
+     * @param cache the cached distance fields of the maze
+     */
+    public MazeDistanceFieldSearch(Maze maze, DistanceFieldCache cache){
+        this(maze, maze.getSearchState(), cache);
+    }
+
+    /**
+     * Constructor that records the path found in the given SearchState instead
+     * of the maze's own.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the path in
+     * @param cache the cached distance fields of the maze
+     */
+    public MazeDistanceFieldSearch(Maze maze, SearchState state, DistanceFieldCache cache){
+        super(maze, state);
+        if (cache.getMaze() != maze){
+            throw new IllegalArgumentException("The DistanceFieldCache belongs to another maze");
+        }
+        this.cache = cache;
+        this.next = -1;
+    }
+
+    /**
+     * Returns the cache of distance fields used by this search.
+     *
+     * @return the cache of distance fields
+     */
+    public DistanceFieldCache getCache(){
+        return cache;
+    }
+
+    /**
+     * Returns the number of cells waiting to be walked to, which is one while
+     * walking and zero otherwise.
+     *
+     * @return the number of cells waiting to be walked to
+     */
+    @Override
+    public int numRemainingCells(){
+        return next == -1 ? 0 : 1;
+    }
+
+    /**
+     * Sets the given cell as the next cell of the walk.
+     *
+     * @param cell the cell to walk to
+     */
+    @Override
+    public void addCell(Cell cell){
+        next = getMaze().indexOf(cell);
+    }
+
+    /**
+     * Returns the next cell of the walk.
+     *
+     * @return the next cell of the walk, or null if it is not walking
+     */
+    @Override
+    public Cell findNextCell(){
+        if (next == -1){
+            return null;
+        }
+        Cell cell = getMaze().get(next);
+        next = -1;
+        return cell;
+    }
+
+    /**
+     * Updates the cell's priority. In this case, it does nothing because the
+     * walk keeps no priorities.
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        // No priority update needed for a walk
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        SearchState state = getSearchState();
+        int[] field = cache.getField(maze.indexOf(target), this::withinLimits);
+        if (field == null){
+            return null; // the limits stopped the search for the distance field
+        }
+        int cur = maze.indexOf(start);
+        int targetIdx = maze.indexOf(target);
+        if (field[cur] == -1){
+            return null; // the target cannot be reached from the start
+        }
+
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        // Walk downhill through the distance field to the target
+        state.setParent(cur, cur);
+        while (cur != targetIdx){
+            if (!withinLimits(1)){
+                return null;
+            }
+            int step = cache.stepTowards(field, cur);
+            state.setParent(step, cur);
+            cur = step;
+
+            if (display){
+                setCur(maze.get(cur));
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+        return traceback(target);
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(10, 10, 0.2);
+        MazeDistanceFieldSearch search = new MazeDistanceFieldSearch(maze);
+        search.search(maze.getStart(), maze.getTarget(), true, 100);
+    }
+}
@@ -0,0 +1,342 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A class that implements hierarchical pathfinding (HPA*) to find a
+ * path through a maze. The maze is abstracted once into a ClusterGraph of entrances
+ * between fixed-size clusters. To answer a query, the start and target are joined to
+ * the entrances of their own clusters by searching those two clusters cell by cell,
+ * and A* then runs over the abstract graph, which has far fewer nodes than the maze
+ * has Cells. Finally, each step of the abstract path is turned back into Cells. Steps
+ * to a node follow the directions the ClusterGraph keeps towards it, and the last step
+ * follows the search of the target's cluster, so no cluster is searched again.
+ *
+ * The path found is always valid but may be slightly longer than the shortest path,
+ * since it has to pass through the middle of each entrance. Bringing the ClusterGraph
+ * up to date after the maze changes counts against the limits of the search, as many
+ * expansions as a cluster has Cells for each cluster rebuilt.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+public class MazeHierarchicalSearch extends AbstractMazeSearch {
+
+    /**
+     * The number of rows and columns of Cells in each cluster when none is given.
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    // The abstraction of the maze
+    private ClusterGraph graph;
+
+    // The search tree over the abstract graph, in which the start and target come
+    // after the nodes of the graph
+    private SearchState abstractState;
+
+    // Priority queue of the abstract nodes to explore
+    private IndexedHeap<Integer> priorityQueue;
+
+    // The f(n) value of each abstract node
+    private int[] fScore;
+
+    // The distance to the target from each node of the target's cluster, in order
+    private int[] targetCosts;
+
+    /**
+     * Constructor for the MazeHierarchicalSearch class, which builds a ClusterGraph
+     * with the default cluster size.
+     *
+     * @param maze the maze to search
+     */
+    public MazeHierarchicalSearch(Maze maze){
+        this(maze, new ClusterGraph(maze, DEFAULT_CLUSTER_SIZE));
+    }
+
+    /**
+     * Constructor that uses the given ClusterGraph, so one graph can be shared by
+     * many searches.
+     *
+     * @param maze  the maze to search
+     * @param graph the abstraction of the maze
+     */
+    public MazeHierarchicalSearch(Maze maze, ClusterGraph graph){
+        this(maze, maze.getSearchState(), graph);
+    }
+
+    /**
+     * Constructor that records the path found in the given SearchState instead
+     * of the maze's own.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the path in
+     * @param graph the abstraction of the maze
+     */
+    public MazeHierarchicalSearch(Maze maze, SearchState state, ClusterGraph graph){
+        super(maze, state);
+        if (graph.getMaze() != maze){
+            throw new IllegalArgumentException("The ClusterGraph was built for another maze");
+        }
+        this.graph = graph;
+        Comparator<Integer> comparator = (a, b) -> Integer.compare(fScore[a], fScore[b]);
+        priorityQueue = new IndexedHeap<Integer>(comparator, node -> node);
+    }
+
+    /**
+     * Returns the abstraction of the maze used by this search.
+     *
+     * @return the ClusterGraph used by this search
+     */
+    public ClusterGraph getClusterGraph(){
+        return graph;
+    }
+
+    /**
+     * Returns the number of abstract nodes remaining in the queue.
+     *
+     * @return the number of abstract nodes remaining in the queue
+     */
+    @Override
+    public int numRemainingCells(){
+        return priorityQueue.size();
+    }
+
+    /**
+     * Adds the abstract node of the given cell to the queue. The cell must be the
+     * cell of a node of the ClusterGraph.
+     *
+     * @param cell the cell to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        offer(graph.nodeAt(getMaze().indexOf(cell)));
+    }
+
+    /**
+     * Returns the cell of the next abstract node to explore and removes it from
+     * the queue.
+     *
+     * @return the cell of the next abstract node to explore, or null if the queue is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        Integer node = priorityQueue.poll();
+        return node == null ? null : getMaze().get(cellOf(node));
+    }
+
+    /**
+     * Updates the priority of the abstract node of the given cell.
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        addCell(cell);
+    }
+
+    /**
+     * Returns the index of the cell of the given abstract node.
+     *
+     * @param node the node, which may be the start or target
+     * @return the index of its cell
+     */
+    private int cellOf(int node){
+        int nodeCount = graph.countNodes();
+        if (node == nodeCount)
+            return getMaze().indexOf(getStart());
+        if (node == nodeCount + 1)
+            return getMaze().indexOf(getTarget());
+        return graph.getNodeCell(node);
+    }
+
+    /**
+     * Adds the given abstract node to the queue, or updates its priority.
+     *
+     * @param node the node
+     */
+    private void offer(int node){
+        int cols = getMaze().getCols();
+        int idx = cellOf(node);
+        fScore[node] = abstractState.getCost(node) + Math.abs(idx / cols - getTarget().getRow())
+                + Math.abs(idx % cols - getTarget().getCol());
+        priorityQueue.offer(node);
+    }
+
+    /**
+     * Reaches the given abstract node from another at the given cost, if that is
+     * cheaper than any way it was reached before.
+     *
+     * @param node the node reached
+     * @param prev the node it is reached from
+     * @param g    the cost of the path to it
+     */
+    private void relax(int node, int prev, int g){
+        if (!abstractState.hasParent(node) || g < abstractState.getCost(node)){
+            abstractState.setParent(node, prev, g);
+            offer(node);
+        }
+    }
+
+    /**
+     * Runs A* over the abstract graph from the start to the target, where the
+     * start and target are joined to the nodes of their clusters.
+     *
+     * @param display whether to show the search in a window
+     * @param delay   the delay between steps of the search when it is shown
+     * @return true if the target was reached, false if it cannot be or the
+     *         search hit one of its limits
+     */
+    private boolean searchAbstract(boolean display, int delay){
+        Maze maze = getMaze();
+        int nodeCount = graph.countNodes();
+        int startNode = nodeCount;
+        int targetNode = nodeCount + 1;
+        int startIdx = maze.indexOf(getStart());
+        int targetIdx = maze.indexOf(getTarget());
+        int startCluster = graph.clusterOf(startIdx);
+        int targetCluster = graph.clusterOf(targetIdx);
+        int firstTargetNode = graph.firstNode(targetCluster);
+
+        // Join the start to the nodes of its cluster, and to the target if it is in the same cluster
+        abstractState.setParent(startNode, startNode);
+        graph.searchCluster(startIdx);
+        for (int node = graph.firstNode(startCluster); node < graph.endNode(startCluster); node++){
+            int dist = graph.clusterDistance(graph.getNodeCell(node));
+            if (dist != -1)
+                relax(node, startNode, dist);
+        }
+        if (graph.clusterDistance(targetIdx) != -1)
+            relax(targetNode, startNode, graph.clusterDistance(targetIdx));
+
+        // Join the target to the nodes of its cluster. This search is left for
+        // refinePath to follow on the last step of the path.
+        graph.searchCluster(targetIdx);
+        targetCosts = new int[graph.endNode(targetCluster) - firstTargetNode];
+        for (int i = 0; i < targetCosts.length; i++)
+            targetCosts[i] = graph.clusterDistance(graph.getNodeCell(firstTargetNode + i));
+
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        while (priorityQueue.size() > 0){
+            if (!withinLimits(1)){
+                return false;
+            }
+            int cur = priorityQueue.poll();
+            setCur(maze.get(cellOf(cur)));
+            if (cur == targetNode)
+                return true;
+            int g = abstractState.getCost(cur);
+            int cluster = graph.getNodeCluster(cur);
+            for (int other = graph.firstNode(cluster); other < graph.endNode(cluster); other++){
+                int dist = graph.getDistance(cur, other);
+                if (other != cur && dist != -1)
+                    relax(other, cur, g + dist);
+            }
+            for (int i = 0; i < 2; i++){
+                int partner = graph.getPartner(cur, i);
+                if (partner != -1)
+                    relax(partner, cur, g + 1);
+            }
+            if (cluster == targetCluster && targetCosts[cur - firstTargetNode] != -1)
+                relax(targetNode, cur, g + targetCosts[cur - firstTargetNode]);
+
+            if (display){
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turns the abstract path to the target into cells, recording each cell's
+     * previous cell in the SearchState.
+     */
+    private void refinePath(){
+        SearchState state = getSearchState();
+        int startNode = graph.countNodes();
+        int targetNode = startNode + 1;
+
+        // Walk the abstract path back to the start, so it can be refined from the start forwards
+        IntDeque abstractPath = new IntDeque();
+        for (int node = targetNode; node != startNode; node = abstractState.getParent(node))
+            abstractPath.pushInt(node);
+
+        // The cells of the path so far, each of which has its previous cell in the SearchState
+        int[] cells = new int[16];
+        int length = 0;
+        state.clear();
+        cells[length++] = cellOf(startNode);
+        state.setParent(cells[0], cells[0]);
+
+        while (!abstractPath.isEmpty()){
+            int node = abstractPath.pollInt();
+            int next = cellOf(node);
+            int cell = cells[length - 1];
+            while (cell != next){
+                // the last step follows the search of the target's cluster, an entrance
+                // joins cells next to each other, and any other step follows the
+                // directions towards the node it leads to
+                if (node == targetNode)
+                    cell = graph.clusterParent(cell);
+                else if (graph.clusterOf(cell) != graph.clusterOf(next))
+                    cell = next;
+                else
+                    cell = graph.stepTowards(cell, node);
+                if (state.isVisited(cell)){
+                    // the path came back to a cell it already passed, so cut out the loop
+                    while (cells[length - 1] != cell)
+                        state.clear(cells[--length]);
+                    continue;
+                }
+                if (length == cells.length)
+                    cells = Arrays.copyOf(cells, 2 * length);
+                state.setParent(cell, cells[length - 1]);
+                cells[length++] = cell;
+            }
+        }
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        // Bring the abstraction up to date with the maze, as far as the limits allow
+        if (!graph.update(this::withinLimits)){
+            return null;
+        }
+        int size = graph.countNodes() + 2;
+        if (abstractState == null || abstractState.size() != size){
+            abstractState = new SearchState(size);
+            fScore = new int[size];
+        }
+        abstractState.clear();
+        priorityQueue.clear();
+
+        if (!searchAbstract(display, delay)){
+            return null; // we couldn't find the target, but we're done
+        }
+        refinePath();
+        return traceback(target);
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(40, 40, 0.2);
+        MazeHierarchicalSearch hpa = new MazeHierarchicalSearch(maze, new ClusterGraph(maze, 8));
+        hpa.search(maze.getStart(), maze.getTarget(), true, 100);
+    }
+}
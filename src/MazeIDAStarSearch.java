@@ -0,0 +1,391 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A class that implements iterative deepening A* (IDA*) to find a
+ * path through a maze when memory, rather than time, is what runs out. Instead of a
+ * priority queue over the whole frontier, it runs depth-first searches that give up on
+ * any path whose f(n) = g(n) + h(n) exceeds a bound, raising the bound to the smallest
+ * f(n) that exceeded it after every search that fails. Only the path being explored is
+ * kept, so the memory used grows with the length of the path, not the size of the maze.
+ *
+ * The price is that Cells are expanded many times over. A transposition table of a
+ * fixed number of entries can be given to remember the smallest g(n) each Cell was
+ * reached with in the current iteration, so the search stops re-exploring a Cell it
+ * already reached at least as cheaply. Without one, only stepping straight back is
+ * ruled out, which is only practical on small mazes.
+ *
+ * An iteration with bound B expands exactly the Cells whose shortest path from the
+ * start has f(n) at most B, so the search stops once an iteration finds no Cell the
+ * one before it did not, or no path was cut off by the bound at all. That needs the
+ * exact number of Cells expanded, which is only known while the transposition table
+ * loses none of them. Otherwise the search stops once the bound reaches n + rows +
+ * cols for the n Cells expanded, since any Cell missed is next to one of them. When
+ * the table loses Cells, n also counts each Cell it lost, so the search stops at the
+ * latest once the bound reaches the number of Cells in the maze, since no shortest
+ * path is longer than that.
+ *
+ * By default the searcher uses a modest transposition table and no SearchState, so
+ * the memory it uses does not grow with the maze. To draw the search, give it a
+ * SearchState.
+ */
+
+import java.util.Arrays;
+
+public class MazeIDAStarSearch extends AbstractMazeSearch {
+
+    /**
+     * The number of entries in the transposition table of the default searcher.
+     */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+
+    // The indices of the cells on the path being explored, with the start at 0
+    private int[] path;
+
+    // The next direction to try from each cell on the path, or -1 if it has not been entered
+    private int[] nextDirection;
+
+    // The index of the last cell on the path
+    private int depth;
+
+    // The transposition table: the cell, g(n) and iteration of each entry, or null if there is none
+    private int[] tableCells;
+    private int[] tableCosts;
+    private int[] tableIterations;
+    private int iteration;
+
+    // The number of cells expanded in the last iteration
+    private int expanded;
+
+    // The number of distinct cells expanded in the last iteration, counting a cell
+    // again if it lost its entry in the transposition table, and whether none did
+    private int distinct;
+    private boolean exact;
+
+    // The index offsets of the neighbors up, down, right and left of a cell
+    private int[] offsets;
+
+    /**
+     * Constructor for the MazeIDAStarSearch class, with a transposition table of
+     * DEFAULT_TABLE_SIZE entries and no SearchState, so the search cannot be drawn.
+     *
+     * @param maze the maze to search
+     */
+    public MazeIDAStarSearch(Maze maze){
+        this(maze, null, DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Constructor that uses a transposition table of the given number of entries.
+     *
+     * @param maze      the maze to search
+     * @param tableSize the number of entries in the transposition table, or 0 for none
+     */
+    public MazeIDAStarSearch(Maze maze, int tableSize){
+        this(maze, maze.getSearchState(), tableSize);
+    }
+
+    /**
+     * Constructor that records the path found in the given SearchState and uses a
+     * transposition table of the given number of entries. The SearchState may be
+     * null when nothing but the path is wanted, which keeps the memory used
+     * independent of the size of the maze, but such a searcher cannot be drawn.
+     *
+     * @param maze      the maze to search
+     * @param state     the SearchState to record the path in, or null
+     * @param tableSize the number of entries in the transposition table, or 0 for none
+     */
+    public MazeIDAStarSearch(Maze maze, SearchState state, int tableSize){
+        super(maze, state);
+        if (tableSize < 0){
+            throw new IllegalArgumentException("Table size must not be negative: " + tableSize);
+        }
+        if (tableSize > 0){
+            tableCells = new int[tableSize];
+            tableCosts = new int[tableSize];
+            tableIterations = new int[tableSize];
+        }
+        path = new int[16];
+        nextDirection = new int[16];
+        depth = -1;
+        offsets = new int[] { -maze.getCols(), maze.getCols(), 1, -1 };
+    }
+
+    /**
+     * Returns the number of cells on the path being explored.
+     *
+     * @return the number of cells on the path being explored
+     */
+    @Override
+    public int numRemainingCells(){
+        return depth + 1;
+    }
+
+    /**
+     * Adds a cell to the end of the path being explored.
+     *
+     * @param cell the cell to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        push(getMaze().indexOf(cell));
+    }
+
+    /**
+     * Returns the cell at the end of the path being explored.
+     *
+     * @return the cell at the end of the path, or null if the path is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        return depth < 0 ? null : getMaze().get(path[depth]);
+    }
+
+    /**
+     * Updates the cell's priority. In this case, it does nothing because IDA*
+     * keeps no priority queue.
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        // No priority update needed for IDA*
+    }
+
+    /**
+     * Returns the number of cells expanded in the last iteration, since IDA* does
+     * not remember which cells it has reached.
+     *
+     * @return the number of cells expanded in the last iteration
+     */
+    @Override
+    public int countReachedCells(){
+        return expanded;
+    }
+
+    /**
+     * Adds the cell with the given index to the end of the path.
+     *
+     * @param idx the index of the cell
+     */
+    private void push(int idx){
+        depth++;
+        if (depth == path.length){
+            path = Arrays.copyOf(path, 2 * path.length);
+            nextDirection = Arrays.copyOf(nextDirection, 2 * nextDirection.length);
+        }
+        path[depth] = idx;
+        nextDirection[depth] = -1;
+    }
+
+    /**
+     * Returns the Manhattan distance from the cell with the given index to the target.
+     *
+     * @param idx the index of the cell
+     * @return the Manhattan distance to the target
+     */
+    private int heuristic(int idx){
+        int cols = getMaze().getCols();
+        return Math.abs(idx / cols - getTarget().getRow()) + Math.abs(idx % cols - getTarget().getCol());
+    }
+
+    /**
+     * Returns the slot of the transposition table for the cell with the given index.
+     *
+     * @param idx the index of the cell
+     * @return the slot of the cell
+     */
+    private int slot(int idx){
+        return (int) ((idx * 0x9E3779B97F4A7C15L >>> 32) % tableCells.length);
+    }
+
+    /**
+     * Looks the cell with the given index up in the transposition table.
+     *
+     * @param idx the index of the cell
+     * @param g   the cost of the path to the cell
+     * @return true if the cell was already expanded at least as cheaply in this
+     *         iteration, false otherwise
+     */
+    private boolean seenBefore(int idx, int g){
+        if (tableCells == null){
+            return false;
+        }
+        int slot = slot(idx);
+        return tableIterations[slot] == iteration && tableCells[slot] == idx && tableCosts[slot] <= g;
+    }
+
+    /**
+     * Records in the transposition table that the cell with the given index was
+     * expanded with the given cost in this iteration.
+     *
+     * @param idx the index of the cell
+     * @param g   the cost of the path to the cell
+     */
+    private void remember(int idx, int g){
+        if (tableCells == null){
+            distinct++;
+            exact = false;
+            return;
+        }
+        int slot = slot(idx);
+        if (tableIterations[slot] != iteration){
+            distinct++;
+        } else if (tableCells[slot] != idx){
+            distinct++;
+            exact = false;
+        }
+        tableCells[slot] = idx;
+        tableCosts[slot] = g;
+        tableIterations[slot] = iteration;
+    }
+
+    /**
+     * Runs one depth-first search from the start, abandoning every path whose
+     * f(n) exceeds the given bound. The path is left ending at the target if it
+     * was found.
+     *
+     * @param bound the largest f(n) to explore
+     * @return -1 if the target was found, otherwise the smallest f(n) that exceeded
+     *         the bound, or Integer.MAX_VALUE if none did or the search hit one
+     *         of its limits
+     */
+    private int boundedSearch(int bound){
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        int targetIdx = maze.indexOf(getTarget());
+        int next = Integer.MAX_VALUE;
+        iteration++;
+        expanded = 0;
+        distinct = 0;
+        exact = true;
+        depth = -1;
+        push(maze.indexOf(getStart()));
+
+        while (depth >= 0){
+            int cur = path[depth];
+            if (nextDirection[depth] == -1){
+                // entering the cell for the first time. A cell already expanded as
+                // cheaply is skipped before the bound is checked, so that a detour to
+                // it does not hold the search open for another iteration.
+                if (seenBefore(cur, depth)){
+                    depth--;
+                    continue;
+                }
+                int f = depth + heuristic(cur);
+                if (f > bound){
+                    next = Math.min(next, f);
+                    depth--;
+                    continue;
+                }
+                if (cur == targetIdx){
+                    return -1;
+                }
+                remember(cur, depth);
+                if (!withinLimits(1)){
+                    return Integer.MAX_VALUE;
+                }
+                expanded++;
+                nextDirection[depth] = 0;
+            }
+
+            int direction = nextDirection[depth];
+            if (direction == 4){
+                depth--;
+                continue;
+            }
+            nextDirection[depth]++;
+            int neighborMask = maze.getNeighborMask(cur / cols, cur % cols);
+            if ((neighborMask & (1 << direction)) == 0)
+                continue;
+            int neighbor = cur + offsets[direction];
+            // never step straight back to the previous cell
+            if (depth > 0 && neighbor == path[depth - 1])
+                continue;
+            push(neighbor);
+        }
+        return next;
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            if (getSearchState() == null){
+                throw new IllegalStateException("A search without a SearchState cannot be drawn");
+            }
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        int bound = heuristic(maze.indexOf(start));
+        int lastDistinct = -1;
+        while (true){
+            int next = boundedSearch(bound);
+            if (next == -1){
+                return foundPath();
+            }
+            // stop if no path was cut off by the bound or a limit was hit, or if
+            // every reachable Cell must already have been expanded, or if the bound
+            // is already longer than any shortest path in the maze can be
+            if (next == Integer.MAX_VALUE || (exact && distinct == lastDistinct)
+                    || (long) distinct + maze.getRows() + maze.getCols() <= bound
+                    || (long) maze.getRows() * maze.getCols() <= bound){
+                break;
+            }
+            lastDistinct = exact ? distinct : -1;
+            bound = next;
+
+            if (display){
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+
+        depth = -1;
+        return null; // we couldn't find the target, but we're done
+    }
+
+    /**
+     * Returns the path that was found, recording it in the SearchState if there
+     * is one.
+     *
+     * @return the path from the starting cell to the target cell
+     */
+    private LinkedList<Cell> foundPath(){
+        Maze maze = getMaze();
+        SearchState state = getSearchState();
+        setCur(getTarget());
+        if (state != null){
+            state.setParent(path[0], path[0]);
+            for (int i = 1; i <= depth; i++){
+                state.setParent(path[i], path[i - 1]);
+            }
+            return traceback(getTarget());
+        }
+        LinkedList<Cell> found = new LinkedList<Cell>();
+        for (int i = depth; i > 0; i--){
+            found.add(maze.get(path[i]));
+        }
+        return found;
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(10, 10, 0.2);
+        MazeIDAStarSearch idaStar = new MazeIDAStarSearch(maze, maze.getSearchState(), 1 << 10);
+        idaStar.search(maze.getStart(), maze.getTarget(), true, 100);
+    }
+}
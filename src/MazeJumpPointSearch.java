@@ -0,0 +1,415 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A class that implements Jump Point Search to find a path through
+ * a maze. It is A* with the symmetric paths pruned away: instead of adding every
+ * neighbor of a Cell to the priority queue, the search moves in a straight line from
+ * the Cell until it reaches a jump point, which is a Cell where the path may have to
+ * turn, and only jump points are added to the queue. On open mazes this explores far
+ * fewer Cells than A* while still finding a shortest path.
+ *
+ * The search moves up, down, left and right only, as in the rest of the mazes. Moving
+ * horizontally stops at a Cell with a forced neighbor above or below it. Moving
+ * vertically stops at a Cell with a forced neighbor to its left or right, or at a Cell
+ * from which a horizontal move reaches a jump point.
+ *
+ * Moving vertically tries both horizontal moves at every step, so horizontal moves are
+ * where the time goes. They scan a bitset of the free Cells 64 Cells at a time: shifting
+ * the rows above and below by one column marks every forced neighbor of a word at once,
+ * and the first obstacle or forced neighbor is found with a single bit scan. Moving
+ * vertically does not even scan: the first time a row is crossed, the forced neighbors
+ * of each word are smeared back over the free Cells behind them, marking every Cell from
+ * which a horizontal move reaches a jump point, and each step reads a single bit of that.
+ * The bitsets are kept between searches and rebuilt only when the maze changes.
+ */
+
+public class MazeJumpPointSearch extends AbstractMazeSearch {
+
+    // Priority queue of the jump points to explore. Every f(n) is a small integer and
+    // never drops below the f(n) of the jump point being expanded, so a bucket queue
+    // adds and removes them in constant time.
+    private BucketQueue<Cell> priorityQueue;
+
+    // The f(n) value of each jump point, indexed by the cell's index in the maze
+    private int[] fScore;
+
+    // The free cells of the maze, one bit per cell with each row starting on a new word,
+    // the number of words in each row, and the maze's modCount when they were read
+    private long[] free;
+    private int rowWords;
+    private int freeModCount;
+
+    // The cells from which a horizontal move reaches a jump point other than the target,
+    // laid out like the free cells. A row is only valid if its stamp matches the version.
+    private long[] horizontalJumps;
+    private int[] rowStamp;
+    private int version;
+
+    /**
+     * Constructor for the MazeJumpPointSearch class.
+     *
+     * @param maze the maze to search
+     */
+    public MazeJumpPointSearch(Maze maze){
+        this(maze, maze.getSearchState());
+    }
+
+    /**
+     * Constructor that records the search tree in the given SearchState instead
+     * of the maze's own.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the search tree in
+     */
+    public MazeJumpPointSearch(Maze maze, SearchState state){
+        super(maze, state);
+        priorityQueue = new BucketQueue<Cell>(cell -> fScore[maze.indexOf(cell)], maze::indexOf, maze::get);
+        fScore = new int[maze.getRows() * maze.getCols()];
+        rowWords = (maze.getCols() + 63) >>> 6;
+        horizontalJumps = new long[maze.getRows() * rowWords];
+        rowStamp = new int[maze.getRows()];
+        readFreeCells();
+    }
+
+    /**
+     * Reads the free cells of the maze into the bitset, and marks every row of
+     * horizontal jumps as out of date.
+     */
+    private void readFreeCells(){
+        free = getMaze().getFreeWords();
+        freeModCount = getMaze().getModCount();
+        version++;
+    }
+
+    /**
+     * Returns the forced neighbors of a word of a row for a horizontal move: the
+     * free Cells of the row with a free Cell above or below them that is blocked
+     * one column behind.
+     *
+     * @param row    the row
+     * @param w      the index of the word in the row
+     * @param colDir the direction of the move, 1 for right and -1 for left
+     * @return the forced neighbors in the word
+     */
+    private long forcedWord(int row, int w, int colDir){
+        long up = freeWord(row - 1, w);
+        long down = freeWord(row + 1, w);
+        long upBehind, downBehind;
+        if (colDir > 0){
+            upBehind = up << 1 | (w > 0 ? freeWord(row - 1, w - 1) >>> 63 : 0);
+            downBehind = down << 1 | (w > 0 ? freeWord(row + 1, w - 1) >>> 63 : 0);
+        } else {
+            upBehind = up >>> 1 | (w < rowWords - 1 ? freeWord(row - 1, w + 1) << 63 : 0);
+            downBehind = down >>> 1 | (w < rowWords - 1 ? freeWord(row + 1, w + 1) << 63 : 0);
+        }
+        return free[row * rowWords + w] & ((up & ~upBehind) | (down & ~downBehind));
+    }
+
+    /**
+     * Marks every free Cell of the given row from which a horizontal move reaches
+     * a forced neighbor before an obstacle. Each direction sweeps the words of the
+     * row against the move, smearing every forced neighbor back over the free Cells
+     * behind it, and carries the smear into the next word.
+     *
+     * @param row the row
+     */
+    private void markHorizontalJumps(int row){
+        int base = row * rowWords;
+        // moving right, a Cell is marked if the Cell after it is forced or marked
+        boolean carry = false;
+        for (int w = rowWords - 1; w >= 0; w--){
+            long freeHere = free[base + w];
+            long reach = forcedWord(row, w, 1) | (carry ? freeHere & 1L << 63 : 0);
+            long through = freeHere;
+            for (int shift = 1; shift < 64; shift <<= 1){
+                reach |= through & (reach >>> shift);
+                through &= through >>> shift;
+            }
+            horizontalJumps[base + w] = freeHere & ((reach >>> 1) | (carry ? 1L << 63 : 0));
+            carry = (reach & 1) != 0;
+        }
+        // moving left, a Cell is marked if the Cell before it is forced or marked
+        carry = false;
+        for (int w = 0; w < rowWords; w++){
+            long freeHere = free[base + w];
+            long reach = forcedWord(row, w, -1) | (carry ? freeHere & 1 : 0);
+            long through = freeHere;
+            for (int shift = 1; shift < 64; shift <<= 1){
+                reach |= through & (reach << shift);
+                through &= through << shift;
+            }
+            horizontalJumps[base + w] |= freeHere & ((reach << 1) | (carry ? 1 : 0));
+            carry = reach < 0;
+        }
+        rowStamp[row] = version;
+    }
+
+    /**
+     * Returns whether a horizontal move from the given free Cell reaches a jump
+     * point in either direction.
+     *
+     * @param row the row of the Cell
+     * @param col the column of the Cell
+     * @return true if either horizontal move reaches a jump point
+     */
+    private boolean hasHorizontalJump(int row, int col){
+        if (row == getTarget().getRow()){
+            return jumpHorizontally(row, col, 1) != -1 || jumpHorizontally(row, col, -1) != -1;
+        }
+        if (rowStamp[row] != version){
+            markHorizontalJumps(row);
+        }
+        return (horizontalJumps[row * rowWords + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /**
+     * Returns the number of jump points remaining in the queue.
+     *
+     * @return the number of jump points remaining in the queue
+     */
+    @Override
+    public int numRemainingCells(){
+        return priorityQueue.size();
+    }
+
+    /**
+     * Adds a jump point to the queue.
+     *
+     * @param cell the jump point to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        int idx = getMaze().indexOf(cell);
+        fScore[idx] = getSearchState().getCost(idx) + MazeAStarSearch.manhattanDistance(cell, getTarget());
+        priorityQueue.offer(cell);
+    }
+
+    /**
+     * Finds the next jump point to explore by popping it from the queue.
+     *
+     * @return the next jump point to explore, or null if the queue is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        return priorityQueue.poll();
+    }
+
+    /**
+     * Updates the jump point's priority after a shorter path to it was found.
+     *
+     * @param cell the jump point to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        addCell(cell);
+    }
+
+    /**
+     * Returns whether the location at the given row and column is inside the
+     * maze and not an OBSTACLE.
+     *
+     * @param row the row
+     * @param col the column
+     * @return true if the location is free, false otherwise
+     */
+    private boolean isFree(int row, int col){
+        Maze maze = getMaze();
+        return row >= 0 && row < maze.getRows() && col >= 0 && col < maze.getCols()
+                && (free[row * rowWords + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /**
+     * Returns a word of the given row of the free cell bitset, treating the rows
+     * outside the maze as blocked.
+     *
+     * @param row  the row
+     * @param word the index of the word in the row
+     * @return the word, or 0 if the row is outside the maze
+     */
+    private long freeWord(int row, int word){
+        return row < 0 || row >= getMaze().getRows() ? 0 : free[row * rowWords + word];
+    }
+
+    /**
+     * Moves horizontally from the given location until reaching a jump point.
+     *
+     * @param row    the row to move along
+     * @param col    the column to move from
+     * @param colDir the direction to move in, 1 for right and -1 for left
+     * @return the index of the jump point, or -1 if there is none
+     */
+    private int jumpHorizontally(int row, int col, int colDir){
+        int cols = getMaze().getCols();
+        int next = col + colDir;
+        if (next < 0 || next >= cols)
+            return -1;
+        long target = getTarget().getRow() == row ? 1L << getTarget().getCol() : 0;
+        int targetWord = getTarget().getCol() >>> 6;
+
+        // In each word the bits to stop at are the obstacles, the forced neighbors and the
+        // target. The padding past the last column is clear, so it counts as an obstacle.
+        for (int w = next >>> 6; w >= 0 && w < rowWords; w += colDir){
+            long freeHere = free[row * rowWords + w];
+            long stop = ~freeHere | forcedWord(row, w, colDir) | (w == targetWord ? target : 0);
+            // ignore the bits at and behind the Cell the move starts from
+            if (w == next >>> 6)
+                stop &= colDir > 0 ? -1L << next : -1L >>> (63 - (next & 63));
+            if (stop == 0)
+                continue;
+            int bit = colDir > 0 ? Long.numberOfTrailingZeros(stop) : 63 - Long.numberOfLeadingZeros(stop);
+            if ((freeHere & (1L << bit)) == 0)
+                return -1;
+            return row * cols + (w << 6) + bit;
+        }
+        return -1;
+    }
+
+    /**
+     * Moves vertically from the given location until reaching a jump point.
+     *
+     * @param row    the row to move from
+     * @param col    the column to move along
+     * @param rowDir the direction to move in, 1 for down and -1 for up
+     * @return the index of the jump point, or -1 if there is none
+     */
+    private int jumpVertically(int row, int col, int rowDir){
+        int targetIdx = getMaze().indexOf(getTarget());
+        while (true){
+            row += rowDir;
+            if (!isFree(row, col))
+                return -1;
+            int idx = row * getMaze().getCols() + col;
+            if (idx == targetIdx)
+                return idx;
+            // a free Cell to the left or right that could not be reached from behind is forced
+            if ((isFree(row, col - 1) && !isFree(row - rowDir, col - 1))
+                    || (isFree(row, col + 1) && !isFree(row - rowDir, col + 1)))
+                return idx;
+            // moving vertically must stop wherever a horizontal move finds a jump point
+            if (hasHorizontalJump(row, col))
+                return idx;
+        }
+    }
+
+    /**
+     * Jumps from the given Cell in each direction worth exploring and records
+     * every jump point found.
+     *
+     * @param cur the jump point to expand
+     */
+    private void expand(Cell cur){
+        Maze maze = getMaze();
+        SearchState state = getSearchState();
+        int curIdx = maze.indexOf(cur);
+        int row = cur.getRow();
+        int col = cur.getCol();
+
+        // The direction cur was reached in, or zero for the start
+        int parentIdx = state.getParent(curIdx);
+        int rowDir = Integer.signum(row - parentIdx / maze.getCols());
+        int colDir = Integer.signum(col - parentIdx % maze.getCols());
+
+        // Moving horizontally, only carry on or turn up or down. Moving vertically,
+        // only carry on or turn left or right.
+        for (int direction = 0; direction < 4; direction++){
+            int stepRow = direction == 0 ? -1 : direction == 1 ? 1 : 0;
+            int stepCol = direction == 2 ? 1 : direction == 3 ? -1 : 0;
+            if ((colDir != 0 && stepCol == -colDir) || (rowDir != 0 && stepRow == -rowDir))
+                continue;
+            int jumpIdx = stepRow != 0 ? jumpVertically(row, col, stepRow)
+                                       : jumpHorizontally(row, col, stepCol);
+            if (jumpIdx == -1)
+                continue;
+            int g = state.getCost(curIdx) + Math.abs(jumpIdx / maze.getCols() - row)
+                    + Math.abs(jumpIdx % maze.getCols() - col);
+            if (!state.hasParent(jumpIdx) || g < state.getCost(jumpIdx)){
+                state.setParent(jumpIdx, curIdx, g);
+                addCell(maze.get(jumpIdx));
+            }
+        }
+    }
+
+    /**
+     * Gives every Cell between consecutive jump points on the path to the given
+     * Cell a parent, so the path can be traced back and drawn one Cell at a time.
+     *
+     * @param cell the last Cell of the path
+     */
+    private void fillPath(Cell cell){
+        Maze maze = getMaze();
+        SearchState state = getSearchState();
+        int cols = maze.getCols();
+        int idx = maze.indexOf(cell);
+        int startIdx = maze.indexOf(getStart());
+        while (idx != startIdx){
+            int jump = state.getParent(idx);
+            int g = state.getCost(idx);
+            int step = Integer.signum(jump / cols - idx / cols) * cols + Integer.signum(jump % cols - idx % cols);
+            // walk back from idx to the previous jump point, linking each Cell to the next one back
+            for (int next = idx + step; next != jump; next += step){
+                state.setParent(idx, next, g--);
+                idx = next;
+            }
+            state.setParent(idx, jump, g);
+            idx = jump;
+        }
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        SearchState state = getSearchState();
+        if (maze.getModCount() != freeModCount){
+            readFreeCells();
+        }
+        // The jump points left queued by the last search belong to its tree
+        priorityQueue.clear();
+        state.setParent(maze.indexOf(start), maze.indexOf(start));
+        addCell(start);
+
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        while (numRemainingCells() > 0){
+            Cell cur = findNextCell();
+            setCur(cur);
+            if (maze.indexOf(cur) == maze.indexOf(target)){
+                fillPath(target);
+                return traceback(target);
+            }
+            if (!withinLimits(1)){
+                return null;
+            }
+            expand(cur);
+
+            if (display){
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+
+        return null; // we couldn't find the target, but we're done
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(10, 10, 0.2);
+        MazeJumpPointSearch jps = new MazeJumpPointSearch(maze);
+        jps.search(maze.getStart(), maze.getTarget(), true, 100);
+    }
+}
@@ -0,0 +1,392 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A class that implements a level-synchronous parallel breadth-first
+ * search to find a path through a maze. Each level of the search is split into chunks
+ * that are expanded at the same time on a fork-join pool, and the next level is the
+ * Cells those chunks reach. Since a whole level is finished before the next one
+ * starts, every Cell is reached at its shortest distance from the start, just as in
+ * MazeBreadthFirstSearch.
+ *
+ * Levels are expanded in one of two directions. Top-down, every Cell of the level
+ * claims its unvisited neighbors with a compare-and-set. Bottom-up, every unvisited
+ * Cell of the maze looks for a neighbor in the level. Bottom-up scans the whole maze,
+ * so it is only used for levels that are a large share both of the Cells not yet
+ * visited and of all the free Cells.
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+public class MazeParallelBreadthFirstSearch extends AbstractMazeSearch {
+
+    /**
+     * Gives atomic access to the elements of the depth array while Cells are claimed.
+     */
+    private static final VarHandle DEPTH = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * The smallest number of Cells worth giving their own chunk.
+     */
+    private static final int MIN_CHUNK = 1024;
+
+    /**
+     * Go bottom-up only for levels holding more than this fraction of the
+     * unvisited Cells.
+     */
+    private static final int ALPHA = 14;
+
+    /**
+     * Go bottom-up only for levels holding more than this fraction of the free
+     * Cells.
+     */
+    private static final int BETA = 24;
+
+    // The pool the levels are expanded on
+    private ForkJoinPool pool;
+
+    // The distance of each cell from the start, or -1 if it has not been reached
+    private int[] depth;
+
+    // The cell each cell was reached from, valid only where depth is not -1
+    private int[] parent;
+
+    // The cells of the current level
+    private int[] frontier;
+    private int frontierSize;
+
+    // The cells each chunk reached while expanding the current level
+    private int[][] reached;
+    private int[] reachedSize;
+
+    // The number of cells reached by the last search
+    private int visited;
+
+    // The index offsets of the neighbors up, down, right and left of a cell
+    private int[] offsets;
+
+    /**
+     * Constructor for the MazeParallelBreadthFirstSearch class, which runs on the
+     * common fork-join pool.
+     *
+     * @param maze the maze to search
+     */
+    public MazeParallelBreadthFirstSearch(Maze maze){
+        this(maze, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor that runs on the given fork-join pool.
+     *
+     * @param maze the maze to search
+     * @param pool the pool to expand the levels on
+     */
+    public MazeParallelBreadthFirstSearch(Maze maze, ForkJoinPool pool){
+        this(maze, maze.getSearchState(), pool);
+    }
+
+    /**
+     * Constructor that records the path found in the given SearchState instead
+     * of the maze's own, and runs on the given fork-join pool.
+     *
+     * @param maze  the maze to search
+     * @param state the SearchState to record the path in
+     * @param pool  the pool to expand the levels on
+     */
+    public MazeParallelBreadthFirstSearch(Maze maze, SearchState state, ForkJoinPool pool){
+        super(maze, state);
+        this.pool = pool;
+        int size = maze.getRows() * maze.getCols();
+        depth = new int[size];
+        parent = new int[size];
+        frontier = new int[16];
+        offsets = new int[] { -maze.getCols(), maze.getCols(), 1, -1 };
+    }
+
+    /**
+     * Returns the number of cells in the current level.
+     *
+     * @return the number of cells in the current level
+     */
+    @Override
+    public int numRemainingCells(){
+        return frontierSize;
+    }
+
+    /**
+     * Adds a cell to the current level.
+     *
+     * @param cell the cell to add
+     */
+    @Override
+    public void addCell(Cell cell){
+        if (frontierSize == frontier.length){
+            frontier = Arrays.copyOf(frontier, 2 * frontierSize);
+        }
+        frontier[frontierSize++] = getMaze().indexOf(cell);
+    }
+
+    /**
+     * Returns and removes the last cell of the current level.
+     *
+     * @return the last cell of the current level, or null if it is empty
+     */
+    @Override
+    public Cell findNextCell(){
+        return frontierSize == 0 ? null : getMaze().get(frontier[--frontierSize]);
+    }
+
+    /**
+     * Updates the cell's priority. In this case, it does nothing because BFS
+     * does not require priority updates.
+     *
+     * @param cell the cell to update
+     */
+    @Override
+    public void updateCell(Cell cell){
+        // No priority update needed for BFS
+    }
+
+    /**
+     * Returns the number of cells reached by the last search.
+     *
+     * @return the number of cells reached by the last search
+     */
+    @Override
+    public int countReachedCells(){
+        return visited;
+    }
+
+    /**
+     * Returns the distance from the start of the last search to the cell with
+     * the given index.
+     *
+     * @param idx the index of the cell
+     * @return the distance, or -1 if the last search did not reach the cell
+     */
+    public int getDepth(int idx){
+        return depth[idx];
+    }
+
+    /**
+     * Records that a chunk reached the given cell.
+     *
+     * @param chunk the chunk
+     * @param idx   the index of the cell
+     */
+    private void reach(int chunk, int idx){
+        if (reachedSize[chunk] == reached[chunk].length){
+            reached[chunk] = Arrays.copyOf(reached[chunk], 2 * reachedSize[chunk]);
+        }
+        reached[chunk][reachedSize[chunk]++] = idx;
+    }
+
+    /**
+     * Expands the cells of the given chunk of the current level, claiming each
+     * unvisited neighbor for the first cell to reach it.
+     *
+     * @param chunk  the chunk
+     * @param chunks the number of chunks
+     * @param level  the depth of the current level
+     */
+    private void expandTopDown(int chunk, int chunks, int level){
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        int from = (int) ((long) frontierSize * chunk / chunks);
+        int to = (int) ((long) frontierSize * (chunk + 1) / chunks);
+        for (int i = from; i < to; i++){
+            int cur = frontier[i];
+            int mask = maze.getNeighborMask(cur / cols, cur % cols);
+            for (int direction = 0; direction < 4; direction++){
+                if ((mask & (1 << direction)) == 0)
+                    continue;
+                int next = cur + offsets[direction];
+                if (depth[next] == -1 && DEPTH.compareAndSet(depth, next, -1, level + 1)){
+                    parent[next] = cur;
+                    reach(chunk, next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks for a neighbor in the current level for every unvisited cell of the
+     * given chunk of the maze. Only this chunk writes to its cells, so nothing
+     * needs to be claimed.
+     *
+     * @param chunk  the chunk
+     * @param chunks the number of chunks
+     * @param level  the depth of the current level
+     */
+    private void expandBottomUp(int chunk, int chunks, int level){
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        int from = (int) ((long) depth.length * chunk / chunks);
+        int to = (int) ((long) depth.length * (chunk + 1) / chunks);
+        for (int idx = from; idx < to; idx++){
+            if (depth[idx] != -1 || maze.isObstacle(idx / cols, idx % cols))
+                continue;
+            int mask = maze.getNeighborMask(idx / cols, idx % cols);
+            for (int direction = 0; direction < 4; direction++){
+                if ((mask & (1 << direction)) != 0 && depth[idx + offsets[direction]] == level){
+                    depth[idx] = level + 1;
+                    parent[idx] = idx + offsets[direction];
+                    reach(chunk, idx);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of chunks to split the given amount of work into.
+     *
+     * @param work the number of cells to process
+     * @return the number of chunks
+     */
+    private int chunksFor(int work){
+        return Math.max(1, Math.min(4 * pool.getParallelism(), work / MIN_CHUNK));
+    }
+
+    /**
+     * Runs the given work for every chunk, on the pool if there is more than one.
+     *
+     * @param chunks the number of chunks
+     * @param work   the work to run for each chunk
+     */
+    private void runChunks(int chunks, IntConsumer work){
+        if (reached == null || reached.length < chunks){
+            reached = new int[chunks][];
+            reachedSize = new int[chunks];
+            for (int chunk = 0; chunk < chunks; chunk++)
+                reached[chunk] = new int[16];
+        }
+        Arrays.fill(reachedSize, 0);
+        if (chunks == 1)
+            work.accept(0);
+        else
+            pool.invoke(new RangeTask(0, chunks, work));
+    }
+
+    /**
+     * Makes the cells reached by every chunk the current level.
+     *
+     * @param chunks the number of chunks
+     */
+    private void gatherLevel(int chunks){
+        int size = 0;
+        for (int chunk = 0; chunk < chunks; chunk++)
+            size += reachedSize[chunk];
+        if (size > frontier.length)
+            frontier = new int[Math.max(size, 2 * frontier.length)];
+        frontierSize = 0;
+        for (int chunk = 0; chunk < chunks; chunk++){
+            System.arraycopy(reached[chunk], 0, frontier, frontierSize, reachedSize[chunk]);
+            frontierSize += reachedSize[chunk];
+        }
+    }
+
+    /**
+     * Searches the maze for the target cell using the given starting cell.
+     *
+     * @param start  the starting cell
+     * @param target the target cell
+     * @return the path from the starting cell to the target cell if it exists, null otherwise
+     */
+    @Override
+    public LinkedList<Cell> search(Cell start, Cell target, boolean display, int delay){
+        // If the target is known to be unreachable there is nothing to search
+        if (!begin(start, target)){
+            return null;
+        }
+
+        Maze maze = getMaze();
+        int cols = maze.getCols();
+        int startIdx = maze.indexOf(start);
+        int targetIdx = maze.indexOf(target);
+
+        // Forget the last search and count the free cells, a stripe of the maze per chunk
+        int rowChunks = chunksFor(depth.length);
+        int[] freeCounts = new int[rowChunks];
+        runChunks(rowChunks, chunk -> {
+            int from = (int) ((long) depth.length * chunk / rowChunks);
+            int to = (int) ((long) depth.length * (chunk + 1) / rowChunks);
+            Arrays.fill(depth, from, to, -1);
+            for (int idx = from; idx < to; idx++){
+                if (!maze.isObstacle(idx / cols, idx % cols))
+                    freeCounts[chunk]++;
+            }
+        });
+        int free = 0;
+        for (int count : freeCounts)
+            free += count;
+
+        depth[startIdx] = 0;
+        parent[startIdx] = startIdx;
+        frontier[0] = startIdx;
+        frontierSize = 1;
+        visited = 1;
+
+        MazeSearchDisplay displayWindow = null;
+        if (display){
+            displayWindow = new MazeSearchDisplay(this, 20);
+        }
+
+        for (int level = 0; frontierSize > 0 && depth[targetIdx] == -1; level++){
+            // the whole level is expanded at once, so the limits are checked between levels
+            if (!withinLimits(frontierSize)){
+                return null;
+            }
+
+            // pick the direction for this level
+            boolean bottomUp = (long) frontierSize * ALPHA > free - visited && (long) frontierSize * BETA > free;
+
+            int current = level;
+            int chunks;
+            if (bottomUp){
+                chunks = chunksFor(depth.length);
+                int all = chunks;
+                runChunks(chunks, chunk -> expandBottomUp(chunk, all, current));
+            }
+            else{
+                chunks = chunksFor(frontierSize);
+                int all = chunks;
+                runChunks(chunks, chunk -> expandTopDown(chunk, all, current));
+            }
+            gatherLevel(chunks);
+            visited += frontierSize;
+
+            if (display){
+                setCur(frontierSize > 0 ? maze.get(frontier[0]) : start);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e){}
+                displayWindow.repaint();
+            }
+        }
+
+        if (depth[targetIdx] == -1){
+            return null; // we couldn't find the target, but we're done
+        }
+
+        // Record the path in the SearchState, from the start forwards
+        SearchState state = getSearchState();
+        int[] path = new int[depth[targetIdx] + 1];
+        for (int idx = targetIdx, i = path.length - 1; i >= 0; idx = parent[idx], i--)
+            path[i] = idx;
+        state.setParent(startIdx, startIdx);
+        for (int i = 1; i < path.length; i++)
+            state.setParent(path[i], path[i - 1]);
+        setCur(target);
+        return traceback(target);
+    }
+
+    public static void main(String[] args) {
+        Maze maze = new Maze(10, 10, 0.2);
+        MazeParallelBreadthFirstSearch bfs = new MazeParallelBreadthFirstSearch(maze);
+        bfs.search(maze.getStart(), maze.getTarget(), true, 100);
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of the class: A benchmark harness for the maze searching algorithms. Every
+ * algorithm is run on the same seeded mazes for a range of grid sizes and obstacle
+ * densities. After some warmup runs, the harness reports the mean time, the bytes
+ * allocated, the number of expansions and the path length for each search. Each
+ * searcher is created before the clock starts, so the arrays it allocates up front
+ * are not timed.
+ *
+ * An expansion is a cell for most searchers, but JPS counts the jump points it
+ * expands, HPA* the nodes of its abstract graph and DF the steps of its walk, so the
+ * unit is printed next to the count.
+ *
+ * ParBFS expands each BFS level in parallel, BitBFS expands each level 64 Cells at a
+ * time, BiBFS and BiA* search from both ends at once, A*-BQ is A* with a bucket queue,
+ * IDA* is iterative deepening A* with a transposition table, JPS is Jump Point Search,
+ * HPA* is hierarchical pathfinding, and DF walks a cached distance field. The cluster
+ * graph of HPA*, the distance field of DF and the bitsets of BitBFS are built during
+ * the warmup runs.
+ *
+ * Usage: java MazeSearchBenchmark [sizes] [densities] [warmup] [iterations] [seed] [packed]
+ * where sizes and densities are comma separated lists, e.g.
+ * java -Xmx8g MazeSearchBenchmark 100,1000,10000 0.1,0.2,0.3 3 5 42 false
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Function;
+
+public class MazeSearchBenchmark {
+
+    /**
+     * The names of the benchmarked algorithms, in the order they are run.
+     */
+    private static final String[] ALGORITHMS = { "DFS", "BFS", "ParBFS", "BitBFS", "BiBFS", "A*", "A*-BQ", "BiA*", "IDA*", "JPS", "HPA*", "DF" };
+
+    /**
+     * Used to read the number of bytes allocated by the benchmark thread.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * The cluster graph shared by every HPA* search of the current maze, so that
+     * building it is left out of the measured runs.
+     */
+    private ClusterGraph clusterGraph;
+
+    /**
+     * The distance fields shared by every DF search of the current maze.
+     */
+    private DistanceFieldCache distanceFields;
+
+    /**
+     * The flood shared by every BitBFS search of the current maze.
+     */
+    private BitParallelFlood bitFlood;
+
+    private int warmup;
+    private int iterations;
+    private long seed;
+    private boolean packed;
+
+    /**
+     * Constructor for the MazeSearchBenchmark class.
+     *
+     * @param warmup     the number of unmeasured runs before measuring
+     * @param iterations the number of measured runs
+     * @param seed       the seed used to generate the mazes
+     * @param packed     whether to generate packed mazes
+     */
+    public MazeSearchBenchmark(int warmup, int iterations, long seed, boolean packed) {
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.seed = seed;
+        this.packed = packed;
+    }
+
+    /**
+     * Returns a function that creates the searcher for the given algorithm.
+     *
+     * @param algorithm the name of the algorithm
+     * @return a function creating a searcher for a maze
+     */
+    private Function<Maze, AbstractMazeSearch> searcher(String algorithm) {
+        switch (algorithm) {
+            case "DFS":
+                return maze -> new MazeDepthFirstSearch(maze);
+            case "BFS":
+                return maze -> new MazeBreadthFirstSearch(maze);
+            case "A*-BQ":
+                return maze -> new MazeAStarSearch(maze, true);
+            case "ParBFS":
+                return maze -> new MazeParallelBreadthFirstSearch(maze);
+            case "BitBFS":
+                return maze -> new MazeBitParallelSearch(maze, bitFlood(maze));
+            case "BiBFS":
+                return maze -> new MazeBidirectionalBreadthFirstSearch(maze);
+            case "BiA*":
+                return maze -> new MazeBidirectionalAStarSearch(maze);
+            case "IDA*":
+                return maze -> new MazeIDAStarSearch(maze, 1 << 20);
+            case "JPS":
+                return maze -> new MazeJumpPointSearch(maze);
+            case "HPA*":
+                return maze -> new MazeHierarchicalSearch(maze, clusterGraph(maze));
+            case "DF":
+                return maze -> new MazeDistanceFieldSearch(maze, distanceFields(maze));
+            default:
+                return maze -> new MazeAStarSearch(maze);
+        }
+    }
+
+    /**
+     * Returns the cluster graph of the given maze, building it if the last one was
+     * built for another maze.
+     *
+     * @param maze the maze
+     * @return the cluster graph of the maze
+     */
+    private ClusterGraph clusterGraph(Maze maze) {
+        if (clusterGraph == null || clusterGraph.getMaze() != maze)
+            clusterGraph = new ClusterGraph(maze, MazeHierarchicalSearch.DEFAULT_CLUSTER_SIZE);
+        return clusterGraph;
+    }
+
+    /**
+     * Returns the distance field cache of the given maze, creating it if the last
+     * one belongs to another maze.
+     *
+     * @param maze the maze
+     * @return the distance field cache of the maze
+     */
+    private DistanceFieldCache distanceFields(Maze maze) {
+        if (distanceFields == null || distanceFields.getMaze() != maze)
+            distanceFields = new DistanceFieldCache(maze);
+        return distanceFields;
+    }
+
+    /**
+     * Returns the bit-parallel flood of the given maze, creating it if the last
+     * one belongs to another maze.
+     *
+     * @param maze the maze
+     * @return the bit-parallel flood of the maze
+     */
+    private BitParallelFlood bitFlood(Maze maze) {
+        if (bitFlood == null || bitFlood.getMaze() != maze)
+            bitFlood = new BitParallelFlood(maze);
+        return bitFlood;
+    }
+
+    /**
+     * Returns what the given algorithm counts as one expansion.
+     *
+     * @param algorithm the name of the algorithm
+     * @return the unit of its expansion count
+     */
+    private static String expansionUnit(String algorithm) {
+        switch (algorithm) {
+            case "JPS":
+                return "jumps";
+            case "HPA*":
+                return "nodes";
+            case "DF":
+                return "steps";
+            default:
+                return "cells";
+        }
+    }
+
+    /**
+     * Runs the given algorithm on the maze and prints one line of results.
+     *
+     * @param maze      the maze to search
+     * @param algorithm the name of the algorithm
+     * @param size      the size of the maze, used for reporting
+     * @param density   the density of the maze, used for reporting
+     */
+    public void run(Maze maze, String algorithm, int size, double density) {
+        Function<Maze, AbstractMazeSearch> factory = searcher(algorithm);
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < warmup; i++) {
+            maze.reset();
+            factory.apply(maze).search(maze.getStart(), maze.getTarget(), false, 0);
+        }
+
+        long totalNanos = 0;
+        long totalBytes = 0;
+        long expanded = 0;
+        int pathLength = 0;
+        for (int i = 0; i < iterations; i++) {
+            AbstractMazeSearch searcher = factory.apply(maze);
+            maze.reset();
+            long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+            SearchResult result = searcher.search(maze.getStart(), maze.getTarget(), SearchLimits.NONE);
+            totalBytes += THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+            totalNanos += result.getElapsedNanos();
+            expanded = result.getExpansions();
+            pathLength = (result.getPath() == null) ? 0 : result.getPath().size();
+        }
+
+        System.out.printf("%-6d %-8.2f %-6s %12.3f %14d %10d %-5s %8d%n", size, density, algorithm,
+            totalNanos / 1e6 / iterations, totalBytes / iterations, expanded, expansionUnit(algorithm), pathLength);
+    }
+
+    /**
+     * Runs every algorithm over every combination of size and density.
+     *
+     * @param sizes     the grid sizes to benchmark
+     * @param densities the obstacle densities to benchmark
+     */
+    public void runAll(int[] sizes, double[] densities) {
+        System.out.printf("%-6s %-8s %-6s %12s %14s %16s %8s%n", "Size", "Density", "Algo",
+            "Time (ms)", "Bytes/op", "Expanded", "Path");
+        for (int size : sizes) {
+            for (double density : densities) {
+                Maze maze = new Maze(size, size, density, seed, packed);
+                for (String algorithm : ALGORITHMS) {
+                    run(maze, algorithm, size, density);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = { 100, 1000 };
+        double[] densities = { 0.1, 0.2, 0.3 };
+        int warmup = 3;
+        int iterations = 5;
+        long seed = 42;
+        boolean packed = false;
+
+        if (args.length > 0) {
+            String[] parts = args[0].split(",");
+            sizes = new int[parts.length];
+            for (int i = 0; i < parts.length; i++)
+                sizes[i] = Integer.parseInt(parts[i]);
+        }
+        if (args.length > 1) {
+            String[] parts = args[1].split(",");
+            densities = new double[parts.length];
+            for (int i = 0; i < parts.length; i++)
+                densities[i] = Double.parseDouble(parts[i]);
+        }
+        if (args.length > 2)
+            warmup = Integer.parseInt(args[2]);
+        if (args.length > 3)
+            iterations = Integer.parseInt(args[3]);
+        if (args.length > 4)
+            seed = Long.parseLong(args[4]);
+        if (args.length > 5)
+            packed = Boolean.parseBoolean(args[5]);
+
+        new MazeSearchBenchmark(warmup, iterations, seed, packed).runAll(sizes, densities);
+    }
+}
@@ -0,0 +1,362 @@
+import java.util.Random;
+import java.util.function.Function;
+
+public abstract class PathTests {
+
+	/**
+	 * Returns whether the path leads from the start to the target one step at a
+	 * time, through free Cells only.
+	 *
+	 * @param start  the starting cell, which the path leaves out
+	 * @param target the target cell
+	 * @param path   the path to check
+	 * @return true if the path is valid, false otherwise
+	 */
+	static boolean isValidPath( Cell start, Cell target, LinkedList<Cell> path ){
+		Cell prev = start;
+		for ( Cell cell : path ){
+			if ( cell.getType() == CellType.OBSTACLE ){
+				return false;
+			}
+			if ( Math.abs( cell.getRow() - prev.getRow() ) + Math.abs( cell.getCol() - prev.getCol() ) != 1 ){
+				return false;
+			}
+			prev = cell;
+		}
+		return prev.equals( target );
+	}
+
+	/**
+	 * Returns a random free Cell of the maze.
+	 *
+	 * @param maze the maze
+	 * @param rand the random numbers to use
+	 * @return the Cell
+	 */
+	static Cell randomFreeCell( Maze maze, Random rand ){
+		while ( true ){
+			Cell cell = maze.get( rand.nextInt( maze.getRows() ), rand.nextInt( maze.getCols() ) );
+			if ( cell.getType() != CellType.OBSTACLE ){
+				return cell;
+			}
+		}
+	}
+
+	/**
+	 * Searches random mazes between two random free Cells with the searcher and with
+	 * BFS, and returns whether every path the searcher found was valid and, where
+	 * it should be, as short as the path BFS found.
+	 *
+	 * @param factory  creates the searcher for a maze
+	 * @param rand     the random numbers to use
+	 * @param restarts the number of mazes to search
+	 * @param shortest whether the searcher must find shortest paths
+	 * @return true if the searcher agreed with BFS on every maze
+	 */
+	static boolean agreesWithBFS( Function<Maze, AbstractMazeSearch> factory, Random rand, int restarts, boolean shortest ){
+		for ( int r = 0 ; r < restarts ; r ++ ){
+			Maze maze = ConnectivityTests.randomMaze( rand );
+			if ( !agreesWithBFS( maze, factory.apply( maze ), rand, shortest ) ){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Searches random mazes no larger than the given size between two random free
+	 * Cells with the searcher and with BFS, and returns whether every path the
+	 * searcher found was valid and, where it should be, as short as the path BFS found.
+	 *
+	 * @param factory  creates the searcher for a maze
+	 * @param rand     the random numbers to use
+	 * @param restarts the number of mazes to search
+	 * @param maxSize  the largest number of rows or columns of the mazes
+	 * @param shortest whether the searcher must find shortest paths
+	 * @return true if the searcher agreed with BFS on every maze
+	 */
+	static boolean agreesWithBFS( Function<Maze, AbstractMazeSearch> factory, Random rand, int restarts, int maxSize, boolean shortest ){
+		for ( int r = 0 ; r < restarts ; r ++ ){
+			Maze maze = ConnectivityTests.randomMaze( rand, maxSize );
+			if ( !agreesWithBFS( maze, factory.apply( maze ), rand, shortest ) ){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Searches the maze between two random free Cells with the searcher and with
+	 * BFS, and returns whether the path the searcher found was valid and, where it
+	 * should be, as short as the path BFS found.
+	 *
+	 * @param maze     the maze to search
+	 * @param searcher the searcher to check
+	 * @param rand     the random numbers to use
+	 * @param shortest whether the searcher must find shortest paths
+	 * @return true if the searcher agreed with BFS
+	 */
+	static boolean agreesWithBFS( Maze maze, AbstractMazeSearch searcher, Random rand, boolean shortest ){
+		int free = 0;
+		for ( Cell cell : maze ){
+			if ( cell.getType() != CellType.OBSTACLE ){
+				free ++;
+			}
+		}
+		if ( free < 2 ){
+			return true; // there are no two Cells to search between
+		}
+		Cell start = randomFreeCell( maze, rand );
+		Cell target = randomFreeCell( maze, rand );
+		while ( target.equals( start ) ){
+			target = randomFreeCell( maze, rand );
+		}
+
+		maze.reset();
+		LinkedList<Cell> bfsPath = new MazeBreadthFirstSearch( maze ).search( start, target, false, 0 );
+		maze.reset();
+		LinkedList<Cell> path = searcher.search( start, target, false, 0 );
+
+		if ( ( path == null ) != ( bfsPath == null ) ){
+			return false;
+		}
+		return path == null || ( isValidPath( start, target, path ) && path.size() >= bfsPath.size()
+				&& ( !shortest || path.size() == bfsPath.size() ) );
+	}
+
+	public static double pathTests(){
+		Random rand = new Random();
+		int restarts = 500 ;
+
+		int score = 0 ;
+
+		if ( agreesWithBFS( maze -> new MazeJumpPointSearch( maze ), rand, restarts, true ) ) {
+			System.out.println( "Test 1" );
+			score ++;
+		}
+
+		if ( agreesWithBFS( maze -> new MazeBidirectionalBreadthFirstSearch( maze ), rand, restarts, true ) ) {
+			System.out.println( "Test 2" );
+			score ++;
+		}
+
+		if ( agreesWithBFS( maze -> new MazeBidirectionalAStarSearch( maze ), rand, restarts, true ) ) {
+			System.out.println( "Test 3" );
+			score ++;
+		}
+
+		if ( agreesWithBFS( maze -> new MazeIDAStarSearch( maze ), rand, restarts, 64, true ) ) {
+			System.out.println( "Test 4" );
+			score ++;
+		}
+
+		// a table about as large as the maze, so that some Cells collide in it
+		if ( agreesWithBFS( maze -> new MazeIDAStarSearch( maze, 128 ), rand, restarts, 12, true ) ) {
+			System.out.println( "Test 5" );
+			score ++;
+		}
+
+		if ( agreesWithBFS( maze -> new MazeHierarchicalSearch( maze, new ClusterGraph( maze, 2 + rand.nextInt( 10 ) ) ), rand, restarts, false ) ) {
+			System.out.println( "Test 6" );
+			score ++;
+		}
+
+		// keep one cluster graph up to date while Cells are blocked and freed
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 10 ; r ++ ){
+				Maze maze = ConnectivityTests.randomMaze( rand );
+				ClusterGraph graph = new ClusterGraph( maze, 2 + rand.nextInt( 10 ) );
+				for ( int round = 0 ; round < 10 ; round ++ ){
+					ConnectivityTests.flip( maze, rand, 1 + rand.nextInt( 20 ) );
+					testPassed &= agreesWithBFS( maze, new MazeHierarchicalSearch( maze, graph ), rand, false );
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 7" );
+				score ++;
+			}
+		}
+
+		// share one cache of distance fields between queries while Cells are blocked and freed
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 10 ; r ++ ){
+				Maze maze = ConnectivityTests.randomMaze( rand );
+				DistanceFieldCache cache = new DistanceFieldCache( maze, 2 );
+				for ( int round = 0 ; round < 10 ; round ++ ){
+					if ( rand.nextBoolean() ){
+						ConnectivityTests.flip( maze, rand, 1 + rand.nextInt( 20 ) );
+					}
+					testPassed &= agreesWithBFS( maze, new MazeDistanceFieldSearch( maze, cache ), rand, true );
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 8" );
+				score ++;
+			}
+		}
+
+		// repair the paths to one target while Cells change and the start moves along
+		// the path, and search again after the searcher stopped listening for a while
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 10 ; r ++ ){
+				Maze maze = ConnectivityTests.randomMaze( rand );
+				Cell target = randomFreeCell( maze, rand );
+				Cell start = randomFreeCell( maze, rand );
+				MazeDStarLiteSearch dStarLite = new MazeDStarLiteSearch( maze );
+				for ( int round = 0 ; round < 20 ; round ++ ){
+					ConnectivityTests.flip( maze, rand, rand.nextInt( 10 ) );
+					if ( round == 10 ){
+						dStarLite.close();
+						ConnectivityTests.flip( maze, rand, 1 + rand.nextInt( 10 ) );
+					}
+					target.setType( CellType.FREE );
+					if ( start.getType() == CellType.OBSTACLE || start.equals( target ) ){
+						start = randomFreeCell( maze, rand );
+					}
+					if ( start.equals( target ) ){
+						continue;
+					}
+
+					maze.reset();
+					LinkedList<Cell> bfsPath = new MazeBreadthFirstSearch( maze ).search( start, target, false, 0 );
+					maze.reset();
+					LinkedList<Cell> path = dStarLite.search( start, target, false, 0 );
+					if ( ( path == null ) != ( bfsPath == null ) ){
+						testPassed = false;
+					} else if ( path != null ){
+						testPassed &= isValidPath( start, target, path ) && path.size() == bfsPath.size();
+						// move a few steps along the path before the next change
+						int steps = rand.nextInt( path.size() );
+						for ( Cell cell : path ){
+							if ( steps -- == 0 ){
+								break;
+							}
+							start = cell;
+						}
+					}
+				}
+				dStarLite.close();
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 9" );
+				score ++;
+			}
+		}
+
+		if ( agreesWithBFS( maze -> new MazeAnytimeAStarSearch( maze, 1, 1 ), rand, restarts, true ) ) {
+			System.out.println( "Test 10" );
+			score ++;
+		}
+
+		// lower the weight down to 1, or stop part of the way there, and check the path
+		// is no longer than the bound published with it allows
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts ; r ++ ){
+				Maze maze = ConnectivityTests.randomMaze( rand );
+				Cell start = maze.getStart();
+				Cell target = maze.getTarget();
+				maze.reset();
+				LinkedList<Cell> bfsPath = new MazeBreadthFirstSearch( maze ).search( start, target, false, 0 );
+				maze.reset();
+				MazeAnytimeAStarSearch araStar = new MazeAnytimeAStarSearch( maze, 1 + 3 * rand.nextDouble(), 0.25 + rand.nextDouble() );
+				boolean limited = rand.nextBoolean();
+				SearchResult result = araStar.search( start, target,
+					limited ? new SearchLimits( rand.nextInt( 400 ), Long.MAX_VALUE ) : SearchLimits.NONE );
+				MazeAnytimeAStarSearch.Solution solution = araStar.getSolution();
+
+				if ( bfsPath == null ){
+					testPassed &= solution == null && result.getPath() == null;
+				} else if ( solution != null ){
+					testPassed &= isValidPath( start, target, solution.getPath() ) && solution.getBound() >= 1
+						&& solution.getPath().size() <= solution.getBound() * bfsPath.size() + 1e-9;
+					testPassed &= limited || ( solution.getBound() == 1 && solution.getPath().size() == bfsPath.size() );
+				} else {
+					testPassed &= limited && result.getStatus() == SearchStatus.BUDGET_EXCEEDED;
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 11" );
+				score ++;
+			}
+		}
+
+		// reuse one jump point searcher for many queries while Cells are blocked and freed
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 10 ; r ++ ){
+				Maze maze = ConnectivityTests.randomMaze( rand );
+				MazeJumpPointSearch jps = new MazeJumpPointSearch( maze );
+				for ( int round = 0 ; round < 20 ; round ++ ){
+					ConnectivityTests.flip( maze, rand, rand.nextInt( 20 ) );
+					testPassed &= agreesWithBFS( maze, jps, rand, true );
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 12" );
+				score ++;
+			}
+		}
+
+		// mazes large enough that each level, or the whole maze, is split into several
+		// chunks expanded in parallel
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 25 ; r ++ ){
+				Maze maze = new Maze( 200 + rand.nextInt( 200 ), 200 + rand.nextInt( 200 ), 0.3 * rand.nextDouble(), rand.nextLong(), rand.nextBoolean() );
+				MazeParallelBreadthFirstSearch parallel = new MazeParallelBreadthFirstSearch( maze );
+				for ( int round = 0 ; round < 5 ; round ++ ){
+					ConnectivityTests.flip( maze, rand, rand.nextInt( 100 ) );
+					testPassed &= agreesWithBFS( maze, parallel, rand, true );
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 13" );
+				score ++;
+			}
+		}
+
+		// share one bit-parallel flood between searches and floods while Cells are
+		// blocked and freed, and check the path lengths against the distance fields
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < restarts / 10 ; r ++ ){
+				Maze maze = ConnectivityTests.randomMaze( rand );
+				BitParallelFlood flood = new BitParallelFlood( maze );
+				MazeBitParallelSearch bitSearch = new MazeBitParallelSearch( maze, flood );
+				DistanceFieldCache fields = new DistanceFieldCache( maze );
+				for ( int round = 0 ; round < 10 ; round ++ ){
+					ConnectivityTests.flip( maze, rand, rand.nextInt( 20 ) );
+					Cell start = randomFreeCell( maze, rand );
+					Cell target = randomFreeCell( maze, rand );
+					if ( start.equals( target ) ){
+						continue;
+					}
+					if ( rand.nextBoolean() ){
+						flood.reachable( maze.indexOf( start ) );
+					}
+					int distance = fields.getField( target )[maze.indexOf( start )];
+					maze.reset();
+					LinkedList<Cell> path = bitSearch.search( start, target, false, 0 );
+					testPassed &= path == null ? distance == -1 : isValidPath( start, target, path ) && path.size() == distance;
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 14" );
+				score ++;
+			}
+		}
+
+		return score ;
+	}
+
+	public static void main( String[] args ) {
+
+		System.out.println( pathTests() + "/14" );
+
+	}
+
+}
@@ -0,0 +1,42 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A fork-join task that runs some work for every index in a range,
+ * splitting the range in half until only one index is left. The parallel searches
+ * use it to run one piece of work per chunk or stripe of the maze.
+ */
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+class RangeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int from, to;
+    private final transient IntConsumer work;
+
+    /**
+     * Constructor for the RangeTask class.
+     *
+     * @param from the first index
+     * @param to   one past the last index
+     * @param work the work to run for each index
+     */
+    RangeTask(int from, int to, IntConsumer work) {
+        this.from = from;
+        this.to = to;
+        this.work = work;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= 1) {
+            if (from < to)
+                work.accept(from);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new RangeTask(from, mid, work), new RangeTask(mid, to, work));
+    }
+}
@@ -0,0 +1,12 @@
+public interface ReachabilityIndex {
+
+    /**
+     * Returns whether there is a path of non-OBSTACLE Cells between the two given
+     * Cells.
+     * 
+     * @param from the Cell to start from.
+     * @param to   the Cell to reach.
+     * @return true if {@code to} can be reached from {@code from}, false otherwise.
+     */
+    public boolean isReachable(Cell from, Cell to);
+}
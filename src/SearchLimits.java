@@ -0,0 +1,181 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: The limits a search must stay within: the number of Cells it may
+ * expand, the time it may take, and a CancellationToken that can stop it from another
+ * thread. A search that hits a limit stops and reports why in its SearchResult
+ * instead of running until its frontier is empty.
+ *
+ * The time may be given either as a time limit, which each search counts from its own
+ * start, or as a deadline, a fixed value of System.nanoTime(), so that several
+ * searches made one after another for the same answer share one budget of time.
+ */
+
+public class SearchLimits {
+
+    /**
+     * Limits that never stop a search
+     */
+    public static final SearchLimits NONE = new SearchLimits(Long.MAX_VALUE, Long.MAX_VALUE, null);
+
+    /**
+     * The number of Cells a search may expand
+     */
+    private final long maxExpansions;
+
+    /**
+     * The time a search may take, in nanoseconds
+     */
+    private final long timeLimitNanos;
+
+    /**
+     * The value of System.nanoTime() by which a search must stop, if there is one
+     */
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+
+    /**
+     * The token that stops a search when it is cancelled, or null
+     */
+    private final CancellationToken token;
+
+    /**
+     * Constructs limits on the number of Cells a search may expand and on how
+     * long it may take.
+     *
+     * @param maxExpansions   the number of Cells a search may expand, or
+     *                        Long.MAX_VALUE for no limit
+     * @param timeLimitMillis the time a search may take in milliseconds, or
+     *                        Long.MAX_VALUE for no limit
+     */
+    public SearchLimits(long maxExpansions, long timeLimitMillis) {
+        this(maxExpansions, timeLimitMillis, null);
+    }
+
+    /**
+     * Constructs limits that also stop a search when the given token is cancelled.
+     *
+     * @param maxExpansions   the number of Cells a search may expand, or
+     *                        Long.MAX_VALUE for no limit
+     * @param timeLimitMillis the time a search may take in milliseconds, or
+     *                        Long.MAX_VALUE for no limit
+     * @param token           the token that stops a search, or null
+     */
+    public SearchLimits(long maxExpansions, long timeLimitMillis, CancellationToken token) {
+        this(maxExpansions, toNanos(timeLimitMillis), false, 0, token);
+    }
+
+    /**
+     * Constructs limits from a time limit already in nanoseconds and an optional deadline.
+     *
+     * @param maxExpansions  the number of Cells a search may expand
+     * @param timeLimitNanos the time a search may take in nanoseconds
+     * @param hasDeadline    whether the search must also stop at the deadline
+     * @param deadlineNanos  the value of System.nanoTime() by which a search must stop
+     * @param token          the token that stops a search, or null
+     */
+    private SearchLimits(long maxExpansions, long timeLimitNanos, boolean hasDeadline, long deadlineNanos,
+            CancellationToken token) {
+        if (maxExpansions < 0) {
+            throw new IllegalArgumentException("Expansion limit must not be negative: " + maxExpansions);
+        }
+        this.maxExpansions = maxExpansions;
+        this.timeLimitNanos = timeLimitNanos;
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+        this.token = token;
+    }
+
+    /**
+     * Returns limits that stop a search at the given deadline, however long ago
+     * the search started. A search started after the deadline stops at once.
+     *
+     * @param maxExpansions the number of Cells a search may expand, or
+     *                      Long.MAX_VALUE for no limit
+     * @param deadlineNanos the value of System.nanoTime() by which a search must stop
+     * @param token         the token that stops a search, or null
+     * @return the limits
+     */
+    public static SearchLimits withDeadline(long maxExpansions, long deadlineNanos, CancellationToken token) {
+        return new SearchLimits(maxExpansions, Long.MAX_VALUE, true, deadlineNanos, token);
+    }
+
+    /**
+     * Converts a time limit from milliseconds to nanoseconds.
+     *
+     * @param timeLimitMillis the time limit in milliseconds, or Long.MAX_VALUE for no limit
+     * @return the time limit in nanoseconds, or Long.MAX_VALUE for no limit
+     */
+    private static long toNanos(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("Time limit must not be negative: " + timeLimitMillis);
+        }
+        return timeLimitMillis >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : timeLimitMillis * 1_000_000;
+    }
+
+    /**
+     * Returns the number of Cells a search may expand.
+     *
+     * @return the number of Cells a search may expand
+     */
+    public long getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    /**
+     * Returns the time a search may take, in nanoseconds.
+     *
+     * @return the time a search may take, in nanoseconds
+     */
+    public long getTimeLimitNanos() {
+        return timeLimitNanos;
+    }
+
+    /**
+     * Returns whether these limits have a deadline.
+     *
+     * @return true if a search must stop at a fixed value of System.nanoTime()
+     */
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * Returns the value of System.nanoTime() by which a search must stop.
+     *
+     * @return the deadline, which is only meaningful if {@code hasDeadline} is true
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Returns whether a search that started at the given time has run out of
+     * time, either past its time limit or past the deadline.
+     *
+     * @param startedAt when the search started, as a value of System.nanoTime()
+     * @param now       the current value of System.nanoTime()
+     * @return true if the search has to stop, false otherwise
+     */
+    public boolean isOutOfTime(long startedAt, long now) {
+        return now - startedAt > timeLimitNanos || (hasDeadline && now - deadlineNanos > 0);
+    }
+
+    /**
+     * Returns the token that stops a search when it is cancelled.
+     *
+     * @return the token, or null if there is none
+     */
+    public CancellationToken getToken() {
+        return token;
+    }
+
+    /**
+     * Returns whether the token has been cancelled.
+     *
+     * @return true if there is a token and it has been cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return token != null && token.isCancelled();
+    }
+}
@@ -0,0 +1,247 @@
+import java.util.Random;
+import java.util.function.Function;
+
+public abstract class SearchLimitsTests {
+
+	/**
+	 * Creates every kind of searcher for the given maze.
+	 *
+	 * @param maze the maze to search
+	 * @return one searcher of each kind
+	 */
+	static AbstractMazeSearch[] searchers( Maze maze ){
+		return new AbstractMazeSearch[] {
+			new MazeDepthFirstSearch( maze ), new MazeBreadthFirstSearch( maze ), new MazeParallelBreadthFirstSearch( maze ),
+			new MazeBitParallelSearch( maze ), new MazeBidirectionalBreadthFirstSearch( maze ), new MazeAStarSearch( maze ),
+			new MazeAStarSearch( maze, true ), new MazeBidirectionalAStarSearch( maze ), new MazeIDAStarSearch( maze ),
+			new MazeJumpPointSearch( maze ), new MazeHierarchicalSearch( maze ), new MazeDistanceFieldSearch( maze ),
+			new MazeAnytimeAStarSearch( maze ), new MazeDStarLiteSearch( maze )
+		};
+	}
+
+	/**
+	 * Runs every kind of searcher on the maze from corner to corner with the
+	 * limits, and returns whether each one stopped with the given status.
+	 *
+	 * @param maze   the maze to search, whose corners are free
+	 * @param limits creates the limits for each search
+	 * @param status the status every search should end with
+	 * @return true if every search ended with the status
+	 */
+	static boolean allStopWith( Maze maze, Function<AbstractMazeSearch, SearchLimits> limits, SearchStatus status ){
+		Cell start = maze.get( 0, 0 );
+		Cell target = maze.get( maze.getRows() - 1, maze.getCols() - 1 );
+		boolean passed = true;
+		for ( AbstractMazeSearch searcher : searchers( maze ) ){
+			maze.reset();
+			SearchLimits searchLimits = limits.apply( searcher );
+			SearchResult result = searcher.search( start, target, searchLimits );
+			passed &= result.getStatus() == status && result.getExpansions() <= searchLimits.getMaxExpansions();
+			// a search stopped by a limit may still return the best path it had found
+			passed &= status == SearchStatus.FOUND ? result.getPath() != null
+				: status != SearchStatus.EXHAUSTED || result.getPath() == null;
+			if ( result.getPath() != null ){
+				passed &= PathTests.isValidPath( start, target, result.getPath() );
+			}
+			if ( searcher instanceof MazeDStarLiteSearch ){
+				( (MazeDStarLiteSearch) searcher ).close();
+			}
+		}
+		return passed;
+	}
+
+	/**
+	 * Returns a random maze whose top left corner can reach its bottom right corner.
+	 *
+	 * @param size the number of rows and columns
+	 * @param rand the random numbers to use
+	 * @return the maze
+	 */
+	static Maze cornerMaze( int size, Random rand ){
+		while ( true ){
+			Maze maze = new Maze( size, size, 0.1, rand.nextLong() );
+			maze.get( 0, 0 ).setType( CellType.FREE );
+			maze.get( size - 1, size - 1 ).setType( CellType.FREE );
+			if ( new ConnectedComponents( maze ).isReachable( maze.get( 0, 0 ), maze.get( size - 1, size - 1 ) ) ){
+				return maze;
+			}
+		}
+	}
+
+	public static double searchLimitsTests(){
+		Random rand = new Random();
+
+		int score = 0 ;
+
+		/**
+		 * Searches without limits find the path, or report there is none
+		 */
+		{
+			Maze maze = cornerMaze( 40, rand );
+			boolean testPassed = allStopWith( maze, searcher -> SearchLimits.NONE, SearchStatus.FOUND );
+			// wall the target in
+			int last = maze.getRows() - 1;
+			maze.get( last - 1, last ).setType( CellType.OBSTACLE );
+			maze.get( last, last - 1 ).setType( CellType.OBSTACLE );
+			testPassed &= allStopWith( maze, searcher -> SearchLimits.NONE, SearchStatus.EXHAUSTED );
+			if ( testPassed ) {
+				System.out.println( "Test 1" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Searches stop within a small budget of expansions, or at once with none
+		 */
+		{
+			Maze maze = cornerMaze( 200, rand );
+			boolean testPassed = allStopWith( maze, searcher -> new SearchLimits( 5, Long.MAX_VALUE ), SearchStatus.BUDGET_EXCEEDED );
+			testPassed &= allStopWith( maze, searcher -> new SearchLimits( 0, Long.MAX_VALUE ), SearchStatus.BUDGET_EXCEEDED );
+			if ( testPassed ) {
+				System.out.println( "Test 2" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Searches stop at once with no time left, or a deadline that has passed
+		 */
+		{
+			Maze maze = cornerMaze( 200, rand );
+			boolean testPassed = allStopWith( maze, searcher -> new SearchLimits( Long.MAX_VALUE, 0 ), SearchStatus.DEADLINE_EXCEEDED );
+			testPassed &= allStopWith( maze, searcher -> SearchLimits.withDeadline( Long.MAX_VALUE, System.nanoTime() - 1, null ),
+				SearchStatus.DEADLINE_EXCEEDED );
+			// one deadline far enough away for every search
+			SearchLimits shared = SearchLimits.withDeadline( Long.MAX_VALUE, System.nanoTime() + 60_000_000_000L, null );
+			testPassed &= allStopWith( cornerMaze( 40, rand ), searcher -> shared, SearchStatus.FOUND );
+			if ( testPassed ) {
+				System.out.println( "Test 3" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Searches stop at once when their token has been cancelled
+		 */
+		{
+			Maze maze = cornerMaze( 200, rand );
+			CancellationToken token = new CancellationToken();
+			token.cancel();
+			boolean testPassed = allStopWith( maze, searcher -> new SearchLimits( Long.MAX_VALUE, Long.MAX_VALUE, token ),
+				SearchStatus.CANCELLED );
+			if ( testPassed ) {
+				System.out.println( "Test 4" );
+				score ++;
+			}
+		}
+
+		/**
+		 * A cluster graph or distance field whose update was stopped is finished by
+		 * the next search
+		 */
+		{
+			boolean testPassed = true;
+			for ( int r = 0 ; r < 20 ; r ++ ){
+				Maze maze = cornerMaze( 60, rand );
+				Cell start = maze.get( 0, 0 );
+				Cell target = maze.get( 59, 59 );
+				ClusterGraph graph = new ClusterGraph( maze, 8 );
+				DistanceFieldCache fields = new DistanceFieldCache( maze );
+				ConnectivityTests.flip( maze, rand, 50 );
+				start.setType( CellType.FREE );
+				target.setType( CellType.FREE );
+
+				maze.reset();
+				LinkedList<Cell> bfsPath = new MazeBreadthFirstSearch( maze ).search( start, target, false, 0 );
+				AbstractMazeSearch[] searchers = { new MazeHierarchicalSearch( maze, graph ), new MazeDistanceFieldSearch( maze, fields ) };
+				for ( AbstractMazeSearch searcher : searchers ){
+					maze.reset();
+					// a target walled in by the changes may be found unreachable within the budget
+					SearchStatus stopped = searcher.search( start, target, new SearchLimits( 1 + rand.nextInt( 100 ), Long.MAX_VALUE ) ).getStatus();
+					testPassed &= stopped == SearchStatus.BUDGET_EXCEEDED || ( bfsPath == null && stopped == SearchStatus.EXHAUSTED );
+					maze.reset();
+					SearchResult result = searcher.search( start, target, SearchLimits.NONE );
+					testPassed &= ( result.getPath() == null ) == ( bfsPath == null );
+					if ( bfsPath != null && result.getPath() != null ){
+						testPassed &= PathTests.isValidPath( start, target, result.getPath() ) && result.getPath().size() >= bfsPath.size();
+					}
+				}
+			}
+			if ( testPassed ) {
+				System.out.println( "Test 5" );
+				score ++;
+			}
+		}
+
+		/**
+		 * Limits that are negative are refused
+		 */
+		{
+			int refused = 0;
+			try {
+				new SearchLimits( -1, 0 );
+			} catch ( IllegalArgumentException e ){
+				refused ++;
+			}
+			try {
+				new SearchLimits( 0, -1 );
+			} catch ( IllegalArgumentException e ){
+				refused ++;
+			}
+			try {
+				SearchLimits.withDeadline( -1, System.nanoTime(), null );
+			} catch ( IllegalArgumentException e ){
+				refused ++;
+			}
+			if ( refused == 3 ) {
+				System.out.println( "Test 6" );
+				score ++;
+			}
+		}
+
+		/**
+		 * ARA* stopped after its first round reports the limit, and returns the path of
+		 * that round, no longer than its bound allows
+		 */
+		{
+			boolean testPassed = true;
+			int stoppedWithPath = 0;
+			for ( int r = 0 ; r < 20 ; r ++ ){
+				Maze maze = cornerMaze( 100, rand );
+				Cell start = maze.get( 0, 0 );
+				Cell target = maze.get( 99, 99 );
+				maze.reset();
+				LinkedList<Cell> bfsPath = new MazeBreadthFirstSearch( maze ).search( start, target, false, 0 );
+				MazeAnytimeAStarSearch araStar = new MazeAnytimeAStarSearch( maze, 3, 0.5 );
+				// double the budget until the first round gets to finish
+				SearchResult result = null;
+				for ( long budget = 1 ; araStar.getSolution() == null ; budget *= 2 ){
+					maze.reset();
+					result = araStar.search( start, target, new SearchLimits( budget, Long.MAX_VALUE ) );
+				}
+				MazeAnytimeAStarSearch.Solution solution = araStar.getSolution();
+				if ( solution.getBound() > 1 ){
+					stoppedWithPath ++;
+					testPassed &= result.getStatus() == SearchStatus.BUDGET_EXCEEDED && result.getPath() == solution.getPath();
+				} else {
+					testPassed &= result.getStatus() == SearchStatus.FOUND;
+				}
+				testPassed &= PathTests.isValidPath( start, target, result.getPath() ) && result.getPath().size() >= bfsPath.size()
+					&& result.getPath().size() <= solution.getBound() * bfsPath.size() + 1e-9;
+			}
+			if ( testPassed && stoppedWithPath > 0 ) {
+				System.out.println( "Test 7" );
+				score ++;
+			}
+		}
+
+		return score ;
+	}
+
+	public static void main( String[] args ) {
+
+		System.out.println( searchLimitsTests() + "/7" );
+
+	}
+
+}
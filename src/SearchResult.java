@@ -0,0 +1,118 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: The outcome of a search run within SearchLimits: why it stopped,
+ * the path if one was found, and how much work it did. The statistics are filled in
+ * even when the search stopped early, so a caller can tell how far it got.
+ */
+
+public class SearchResult {
+
+    /**
+     * Why the search stopped
+     */
+    private final SearchStatus status;
+
+    /**
+     * The path from the starting Cell to the target Cell, or null if none was found.
+     * A search stopped by a limit may still have found one.
+     */
+    private final LinkedList<Cell> path;
+
+    /**
+     * The number of Cells the search expanded
+     */
+    private final long expansions;
+
+    /**
+     * The number of Cells the search reached
+     */
+    private final int reachedCells;
+
+    /**
+     * The time the search took, in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a SearchResult from the given parameters.
+     *
+     * @param status       why the search stopped
+     * @param path         the path found, or null
+     * @param expansions   the number of Cells the search expanded
+     * @param reachedCells the number of Cells the search reached
+     * @param elapsedNanos the time the search took, in nanoseconds
+     */
+    public SearchResult(SearchStatus status, LinkedList<Cell> path, long expansions, int reachedCells, long elapsedNanos) {
+        this.status = status;
+        this.path = path;
+        this.expansions = expansions;
+        this.reachedCells = reachedCells;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns why the search stopped.
+     *
+     * @return why the search stopped
+     */
+    public SearchStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns whether the search ran to the end and found a path.
+     *
+     * @return true if the search ended with a path, false otherwise
+     */
+    public boolean isFound() {
+        return status == SearchStatus.FOUND;
+    }
+
+    /**
+     * Returns the path from the starting Cell to the target Cell.
+     *
+     * @return the path, or null if none was found
+     */
+    public LinkedList<Cell> getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of Cells the search expanded.
+     *
+     * @return the number of Cells the search expanded
+     */
+    public long getExpansions() {
+        return expansions;
+    }
+
+    /**
+     * Returns the number of Cells the search reached.
+     *
+     * @return the number of Cells the search reached
+     */
+    public int getReachedCells() {
+        return reachedCells;
+    }
+
+    /**
+     * Returns the time the search took, in nanoseconds.
+     *
+     * @return the time the search took, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns a String describing the result.
+     *
+     * @return a String describing the result
+     */
+    @Override
+    public String toString() {
+        return status + " path " + (path == null ? "none" : path.size() + " cells") + ", " + expansions
+                + " expanded, " + reachedCells + " reached, " + String.format("%.2f ms", elapsedNanos / 1e6);
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: A class that stores the search tree built by a maze search. The
+ * parent of every Cell is stored as an index into an int array, where the index of a
+ * Cell is row * cols + col, so searches do not need to modify the Cells of the maze.
+ * 
+ * Every entry is stamped with the epoch it was written in, and entries from older
+ * epochs count as unvisited. Clearing the whole state only starts a new epoch.
+ */
+
+import java.util.Arrays;
+
+public class SearchState {
+
+    /**
+     * Marks a Cell that has not been visited.
+     */
+    private static final int UNVISITED = -1;
+
+    /**
+     * Marks a Cell that has been visited but was not revealed by another Cell.
+     */
+    private static final int NO_PARENT = -2;
+
+    /**
+     * The index of the parent of each Cell, or one of the markers above.
+     */
+    private int[] parent;
+
+    /**
+     * The cost of the path from the start to each Cell through its parents.
+     */
+    private int[] cost;
+
+    /**
+     * The epoch in which each entry of {@code parent} was written.
+     */
+    private int[] stamp;
+
+    /**
+     * The current epoch. Entries stamped with any other epoch are unvisited.
+     */
+    private int epoch;
+
+    /**
+     * The number of Cells that currently have a parent.
+     */
+    private int count;
+
+    /**
+     * Constructs a SearchState for a maze with the given number of Cells.
+     *
+     * @param size the number of Cells in the maze
+     */
+    public SearchState(int size) {
+        parent = new int[size];
+        cost = new int[size];
+        stamp = new int[size];
+        epoch = 1;
+    }
+
+    /**
+     * Returns the number of Cells this SearchState can hold.
+     *
+     * @return the number of Cells this SearchState can hold
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * Returns whether the Cell with the given index has been visited.
+     *
+     * @param index the index of the Cell
+     * @return true if the Cell has been visited, false otherwise
+     */
+    public boolean isVisited(int index) {
+        return stamp[index] == epoch;
+    }
+
+    /**
+     * Returns whether the Cell with the given index has a parent.
+     *
+     * @param index the index of the Cell
+     * @return true if the Cell has a parent, false otherwise
+     */
+    public boolean hasParent(int index) {
+        return stamp[index] == epoch && parent[index] >= 0;
+    }
+
+    /**
+     * Returns the index of the parent of the Cell with the given index.
+     *
+     * @param index the index of the Cell
+     * @return the index of the parent, or -1 if the Cell has no parent
+     */
+    public int getParent(int index) {
+        return hasParent(index) ? parent[index] : -1;
+    }
+
+    /**
+     * Sets the parent of the Cell with the given index, which also marks it as
+     * visited. The cost of the Cell becomes one more than the cost of its parent,
+     * or zero if the Cell is its own parent.
+     *
+     * @param index the index of the Cell
+     * @param prev  the index of its parent
+     */
+    public void setParent(int index, int prev) {
+        setParent(index, prev, prev == index ? 0 : getCost(prev) + 1);
+    }
+
+    /**
+     * Sets the parent and the path cost of the Cell with the given index, which
+     * also marks it as visited.
+     *
+     * @param index the index of the Cell
+     * @param prev  the index of its parent
+     * @param g     the cost of the path from the start to the Cell
+     */
+    public void setParent(int index, int prev, int g) {
+        if (!hasParent(index))
+            count++;
+        stamp[index] = epoch;
+        parent[index] = prev;
+        cost[index] = g;
+    }
+
+    /**
+     * Returns the cost of the path from the start to the Cell with the given
+     * index through its parents.
+     *
+     * @param index the index of the Cell
+     * @return the path cost, or 0 if the Cell has no parent
+     */
+    public int getCost(int index) {
+        return hasParent(index) ? cost[index] : 0;
+    }
+
+    /**
+     * Marks the Cell with the given index as visited or unvisited without
+     * giving it a parent.
+     *
+     * @param index   the index of the Cell
+     * @param visited whether the Cell has been visited
+     */
+    public void setVisited(int index, boolean visited) {
+        if (!visited) {
+            clear(index);
+        } else if (!isVisited(index)) {
+            stamp[index] = epoch;
+            parent[index] = NO_PARENT;
+        }
+    }
+
+    /**
+     * Returns the number of Cells that have a parent.
+     *
+     * @return the number of Cells that have a parent
+     */
+    public int countVisited() {
+        return count;
+    }
+
+    /**
+     * Resets the Cell with the given index back to unvisited.
+     *
+     * @param index the index of the Cell
+     */
+    public void clear(int index) {
+        if (hasParent(index))
+            count--;
+        stamp[index] = 0;
+        parent[index] = UNVISITED;
+    }
+
+    /**
+     * Resets every Cell back to unvisited by starting a new epoch. The stamps
+     * only need to be wiped when the epoch counter wraps around.
+     */
+    public void clear() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        count = 0;
+    }
+}
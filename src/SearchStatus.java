@@ -0,0 +1,28 @@
+public enum SearchStatus {
+
+    /**
+     * A path to the target was found.
+     */
+    FOUND,
+
+    /**
+     * Every Cell the search could reach was expanded, or the target is known to
+     * be unreachable, so there is no path.
+     */
+    EXHAUSTED,
+
+    /**
+     * The search stopped because it would have expanded more Cells than allowed.
+     */
+    BUDGET_EXCEEDED,
+
+    /**
+     * The search stopped because it ran out of time.
+     */
+    DEADLINE_EXCEEDED,
+
+    /**
+     * The search stopped because its CancellationToken was cancelled.
+     */
+    CANCELLED;
+}
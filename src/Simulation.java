@@ -17,8 +17,8 @@ public class Simulation {
             int count = 0;
             for(int i = 0; i < 10; i++){
                 Maze maze = new Maze(20,20, density);
-                MazeAStarSearch astar = new MazeAStarSearch(maze);
-                if(astar.search(maze.getStart(), maze.getTarget(), false, 0) != null){
+                ConnectedComponents components = new ConnectedComponents(maze);
+                if(components.isReachable(maze.getStart(), maze.getTarget())){
                     count++;
                 }
             }
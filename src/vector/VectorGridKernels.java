@@ -0,0 +1,152 @@
+/**
+ * Author: Muneeb Azfar Nafees
+ *
+ * Purpose of class: The GridKernels written with the JDK's incubating Vector API, so
+ * each loop handles as many values as fit in the CPU's widest SIMD register. Every
+ * kernel gives exactly the same result as the scalar one it replaces, and the few
+ * values left over at the end of a row are handed to the scalar loop.
+ *
+ * This class needs the incubator module, so it lives apart from the other classes
+ * and is compiled and run with {@code --add-modules jdk.incubator.vector}. It is in
+ * the same unnamed package as GridKernels, which finds it by reflection.
+ */
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorGridKernels extends GridKernels {
+
+    /**
+     * The widest vectors of doubles and longs the CPU supports
+     */
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * A vector of zeros, and a vector whose lane {@code k} holds the bit {@code 1L << k}
+     */
+    private static final LongVector ZERO = LongVector.zero(LONGS);
+    private static final LongVector LANE_BITS = ZERO.broadcast(1L).lanewise(VectorOperators.LSHL, ZERO.addIndex(1));
+
+    /**
+     * Constructor for the VectorGridKernels class. It is public so GridKernels can
+     * create it by reflection.
+     */
+    public VectorGridKernels() {
+    }
+
+    /**
+     * Returns the name of these kernels and the width of their vectors.
+     *
+     * @return the name of these kernels
+     */
+    @Override
+    public String getName() {
+        return "vector" + LONGS.vectorBitSize();
+    }
+
+    /**
+     * Sets the bit of every value below the threshold, comparing a vector of values
+     * at a time. The lanes that compare below pick their bit out of LANE_BITS, and
+     * ORing the lanes together gives the bits of the whole vector. Java 17 turns
+     * this into SIMD instructions, while VectorMask.toLong is slower than the
+     * scalar loop. A vector never has more than 64 lanes and always starts at a
+     * multiple of its length, so its bits never straddle two words.
+     *
+     * @param values    the values
+     * @param n         the number of values
+     * @param threshold the threshold
+     * @param words     the words to set the bits in
+     * @param offset    the index of the word holding the bit of value 0
+     */
+    @Override
+    public void packBelow(double[] values, int n, double threshold, long[] words, int offset) {
+        int length = DOUBLES.length();
+        int c = 0;
+        for (; c <= n - length; c += length) {
+            VectorMask<Long> below = DoubleVector.fromArray(DOUBLES, values, c).lt(threshold).cast(LONGS);
+            long bits = ZERO.blend(LANE_BITS, below).reduceLanes(VectorOperators.OR);
+            words[offset + (c >>> 6)] |= bits << c;
+        }
+        for (; c < n; c++) {
+            if (values[c] < threshold)
+                words[offset + (c >>> 6)] |= 1L << c;
+        }
+    }
+
+    /**
+     * Grows a layer of a flood across one row of words, a vector of words at a
+     * time. The words beside each vector are read with loads one word to either
+     * side, so the first and last words of the row are left to the scalar loop.
+     *
+     * @param frontier the current layer
+     * @param free     the free Cells
+     * @param reached  the Cells reached so far
+     * @param next     where the row of the next layer is stored
+     * @param base     the index of the first word of the row
+     * @param words    the number of words in each row
+     * @param above    whether there is a row above this one
+     * @param below    whether there is a row below this one
+     * @return the OR of the words of the next layer in the row, which is zero if
+     *         the row has none
+     */
+    @Override
+    public long expandRow(long[] frontier, long[] free, long[] reached, long[] next, int base, int words,
+            boolean above, boolean below) {
+        int length = LONGS.length();
+        long any = expandWords(frontier, free, reached, next, base, words, 0, Math.min(1, words), above, below);
+        LongVector seen = LongVector.zero(LONGS);
+        int w = 1;
+        for (; w + length <= words - 1; w += length) {
+            int i = base + w;
+            LongVector f = LongVector.fromArray(LONGS, frontier, i);
+            LongVector spread = f.lanewise(VectorOperators.LSHL, 1)
+                    .or(f.lanewise(VectorOperators.LSHR, 1))
+                    .or(LongVector.fromArray(LONGS, frontier, i - 1).lanewise(VectorOperators.LSHR, 63))
+                    .or(LongVector.fromArray(LONGS, frontier, i + 1).lanewise(VectorOperators.LSHL, 63));
+            if (above)
+                spread = spread.or(LongVector.fromArray(LONGS, frontier, i - words));
+            if (below)
+                spread = spread.or(LongVector.fromArray(LONGS, frontier, i + words));
+            LongVector r = LongVector.fromArray(LONGS, reached, i);
+            LongVector found = spread.and(LongVector.fromArray(LONGS, free, i)).and(r.not());
+            found.intoArray(next, i);
+            r.or(found).intoArray(reached, i);
+            seen = seen.or(found);
+        }
+        any |= seen.reduceLanes(VectorOperators.OR);
+        return any | expandWords(frontier, free, reached, next, base, words, Math.max(w, 1), words, above, below);
+    }
+
+    /**
+     * Returns the number of bits set in the given range of words. Java 17's
+     * Vector API has no lanewise bit count, so each lane is counted with the
+     * usual shifts and masks, which sum the bits in pairs, then nibbles, then
+     * bytes, and finally the bytes of the lane.
+     *
+     * @param words the words
+     * @param from  the index of the first word
+     * @param to    the index after the last word
+     * @return the number of bits set
+     */
+    @Override
+    public int bitCount(long[] words, int from, int to) {
+        int length = LONGS.length();
+        LongVector sum = LongVector.zero(LONGS);
+        int i = from;
+        for (; i <= to - length; i += length) {
+            LongVector x = LongVector.fromArray(LONGS, words, i);
+            x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+            x = x.and(0x3333333333333333L).add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+            x = x.add(x.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+            x = x.add(x.lanewise(VectorOperators.LSHR, 8));
+            x = x.add(x.lanewise(VectorOperators.LSHR, 16));
+            x = x.add(x.lanewise(VectorOperators.LSHR, 32));
+            sum = sum.add(x.and(0x7F));
+        }
+        return (int) sum.reduceLanes(VectorOperators.ADD) + super.bitCount(words, i, to);
+    }
+}